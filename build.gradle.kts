@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "4.0.0"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 tasks.bootJar {
@@ -27,10 +28,16 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-security")
 	implementation("org.springframework.boot:spring-boot-starter-webmvc")
 	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	// Prometheus scrape endpoint at /actuator/prometheus
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	runtimeOnly("org.postgresql:postgresql")
 	runtimeOnly("com.h2database:h2")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
 
+	// read-through caching of item lookups
+	implementation("org.springframework.boot:spring-boot-starter-cache")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+
 	// DB migrations
 	implementation("org.springframework.boot:spring-boot-starter-flyway")
 	runtimeOnly("org.flywaydb:flyway-database-postgresql")
@@ -50,4 +57,20 @@ dependencies {
 
 tasks.withType<Test> {
 	useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// Ingest benchmarks in src/jmh: ./gradlew jmh (optionally -PjmhIncludes=IngestBenchmark.parseStreaming)
+// Results go to build/results/jmh/results.json; keep that file per commit to compare runs.
+jmh {
+	jmhVersion.set("1.37")
+	fork.set(1)
+	warmupIterations.set(3)
+	iterations.set(5)
+	// allocation rate and GC counts next to every score
+	profilers.set(listOf("gc"))
+	resultFormat.set("JSON")
+	resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+	// the 1M auction tree parse needs the headroom
+	jvmArgs.set(listOf("-Xms4g", "-Xmx4g"))
+	providers.gradleProperty("jmhIncludes").orNull?.let { includes.set(listOf(it)) }
+}
@@ -0,0 +1,90 @@
+package com.crafting.blizz;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Collecting and pricing already-parsed auctions, JSON excluded: {@code boxed}
+ * filters with a Set, groups AuctionEntry objects in a HashMap and prices them
+ * with {@link AuctionProcesser#calculateAveragePrices(Map)}; {@code primitive}
+ * filters with the tracked bitset, fills an {@link AuctionAccumulator} and prices
+ * its columns. Both start from empty structures on every invocation, so the gc
+ * profiler's gc.alloc.rate.norm is the allocation of one whole aggregation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class AggregationBenchmark {
+
+    @Param({"500000"})
+    public int auctions;
+
+    @Param({"2000", "20000"})
+    public int trackedItems;
+
+    private int[] itemIds;
+    private long[] unitPrices;
+    private int[] quantities;
+    private IntPredicate tracked;
+    private Set<Integer> trackedSet;
+    private AuctionProcesser auctionProcesser;
+
+    @Setup
+    public void setUp() {
+        SyntheticDump dump = SyntheticDump.generate(auctions, trackedItems, 42);
+        itemIds = dump.itemIds();
+        unitPrices = dump.unitPrices();
+        quantities = dump.quantities();
+        tracked = dump.tracked()::get;
+        trackedSet = new HashSet<>();
+        dump.tracked().stream().forEach(trackedSet::add);
+        BlizzConfig config = new BlizzConfig();
+        // single-threaded, as the aggregation was before pricing went parallel
+        config.setPriceParallelism(1);
+        auctionProcesser = new AuctionProcesser(new SortingPriceEstimator(), config);
+    }
+
+    @TearDown
+    public void tearDown() {
+        auctionProcesser.shutdown();
+    }
+
+    @Benchmark
+    public Map<Integer, Long> boxed() {
+        Map<Integer, List<AuctionEntry>> collected = new HashMap<>();
+        for (int i = 0; i < itemIds.length; i++) {
+            if (trackedSet.contains(itemIds[i])) {
+                collected.computeIfAbsent(itemIds[i], id -> new ArrayList<>())
+                    .add(new AuctionEntry(unitPrices[i], quantities[i]));
+            }
+        }
+        return auctionProcesser.calculateAveragePrices(collected);
+    }
+
+    @Benchmark
+    public ItemPrices primitive() {
+        AuctionAccumulator collected = new AuctionAccumulator();
+        for (int i = 0; i < itemIds.length; i++) {
+            if (tracked.test(itemIds[i])) {
+                collected.add(itemIds[i], unitPrices[i], quantities[i]);
+            }
+        }
+        return auctionProcesser.calculateAveragePrices(collected);
+    }
+}
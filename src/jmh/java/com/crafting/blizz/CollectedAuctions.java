@@ -0,0 +1,42 @@
+package com.crafting.blizz;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * The tracked auctions of a {@link SyntheticDump}, plus pristine copies of every
+ * column. Price estimators reorder the columns in place, so pricing benchmarks
+ * call {@link #restore()} before each invocation to price the same unsorted
+ * input every time.
+ */
+final class CollectedAuctions {
+    private final AuctionAccumulator auctions;
+    private final long[][] prices;
+    private final int[][] quantities;
+
+    private CollectedAuctions(AuctionAccumulator auctions) {
+        this.auctions = auctions;
+        prices = new long[auctions.size()][];
+        quantities = new int[auctions.size()][];
+        for (int slot = 0; slot < auctions.size(); slot++) {
+            prices[slot] = auctions.prices(slot).clone();
+            quantities[slot] = auctions.quantities(slot).clone();
+        }
+    }
+
+    static CollectedAuctions of(SyntheticDump dump, AuctionProcesser auctionProcesser) throws IOException {
+        return new CollectedAuctions(
+            auctionProcesser.collect(new ByteArrayInputStream(dump.json()), dump.tracked()::get));
+    }
+
+    AuctionAccumulator auctions() {
+        return auctions;
+    }
+
+    void restore() {
+        for (int slot = 0; slot < prices.length; slot++) {
+            System.arraycopy(prices[slot], 0, auctions.prices(slot), 0, auctions.count(slot));
+            System.arraycopy(quantities[slot], 0, auctions.quantities(slot), 0, auctions.count(slot));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.crafting.blizz;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The tracked-item test run once per auction while parsing: the bitset
+ * predicate handed out by TrackedItemIndex against the boxed Set lookup it
+ * replaced. Each invocation tests every auction of the dump.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class FilterBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int auctions;
+
+    @Param({"1000", "20000"})
+    public int trackedItems;
+
+    private int[] itemIds;
+    private IntPredicate bitSet;
+    private Set<Integer> hashSet;
+
+    @Setup
+    public void setUp() {
+        SyntheticDump dump = SyntheticDump.generate(auctions, trackedItems, 42);
+        itemIds = dump.itemIds();
+        bitSet = dump.tracked()::get;
+        hashSet = new HashSet<>();
+        dump.tracked().stream().forEach(hashSet::add);
+    }
+
+    @Benchmark
+    public int bitSetPredicate() {
+        int matched = 0;
+        for (int itemId : itemIds) {
+            if (bitSet.test(itemId)) matched++;
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public int boxedSet() {
+        int matched = 0;
+        for (int itemId : itemIds) {
+            if (hashSet.contains(itemId)) matched++;
+        }
+        return matched;
+    }
+}
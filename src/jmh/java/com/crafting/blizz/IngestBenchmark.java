@@ -0,0 +1,74 @@
+package com.crafting.blizz;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Parse and end-to-end ingest of a whole commodities dump, from bytes to prices.
+ * {@code parseStreaming} is the production path; {@code parseTree} is the
+ * original tree-model parse, kept as the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class IngestBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int auctions;
+
+    @Param({"1000", "20000"})
+    public int trackedItems;
+
+    private SyntheticDump dump;
+    private String dumpString;
+    private IntPredicate tracked;
+    private Set<Integer> trackedSet;
+    private AuctionProcesser auctionProcesser;
+
+    @Setup
+    public void setUp() {
+        dump = SyntheticDump.generate(auctions, trackedItems, 42);
+        dumpString = dump.jsonString();
+        tracked = dump.tracked()::get;
+        trackedSet = new HashSet<>();
+        dump.tracked().stream().forEach(trackedSet::add);
+        auctionProcesser = new AuctionProcesser(new SelectionPriceEstimator(), new BlizzConfig());
+    }
+
+    @TearDown
+    public void tearDown() {
+        auctionProcesser.shutdown();
+    }
+
+    @Benchmark
+    public AuctionAccumulator parseStreaming() throws IOException {
+        return auctionProcesser.collect(new ByteArrayInputStream(dump.json()), tracked);
+    }
+
+    @Benchmark
+    public Map<Integer, List<AuctionEntry>> parseTree() throws IOException {
+        return auctionProcesser.processAndCollect(dumpString, trackedSet);
+    }
+
+    @Benchmark
+    public ItemPrices ingest() throws IOException {
+        return auctionProcesser.calculateAveragePrices(
+            auctionProcesser.collect(new ByteArrayInputStream(dump.json()), tracked));
+    }
+}
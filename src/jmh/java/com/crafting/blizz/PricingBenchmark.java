@@ -0,0 +1,98 @@
+package com.crafting.blizz;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Pricing of the collected auctions of a dump. {@code estimate} runs the
+ * configured {@link PriceEstimator} over every item on the calling thread;
+ * {@code aggregate} is {@link AuctionProcesser#calculateAveragePrices(AuctionAccumulator)}
+ * as used by a fetch, including the parallel split. Columns are restored before
+ * every invocation because the estimators reorder them in place.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PricingBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int auctions;
+
+    @Param({"1000", "20000"})
+    public int trackedItems;
+
+    // blizzard.priceEstimator
+    @Param({"selection", "sort"})
+    public String estimator;
+
+    private CollectedAuctions collected;
+    private PriceEstimator priceEstimator;
+
+    /**
+     * Pricing pool of the aggregate benchmark; estimate runs without one, so it
+     * is not repeated per parallelism.
+     */
+    @State(Scope.Benchmark)
+    public static class Pool {
+        // blizzard.priceParallelism, 0 = one thread per core
+        @Param({"1", "0"})
+        public int parallelism;
+
+        private AuctionProcesser auctionProcesser;
+
+        @Setup
+        public void setUp(PricingBenchmark benchmark) {
+            BlizzConfig config = new BlizzConfig();
+            config.setPriceParallelism(parallelism);
+            auctionProcesser = new AuctionProcesser(benchmark.priceEstimator, config);
+        }
+
+        @TearDown
+        public void tearDown() {
+            auctionProcesser.shutdown();
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        BlizzConfig config = new BlizzConfig();
+        config.setPriceEstimator(estimator);
+        config.setPriceParallelism(1);
+        priceEstimator = new PricingConfig().priceEstimator(config);
+        AuctionProcesser collector = new AuctionProcesser(priceEstimator, config);
+        collected = CollectedAuctions.of(SyntheticDump.generate(auctions, trackedItems, 42), collector);
+        collector.shutdown();
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreColumns() {
+        collected.restore();
+    }
+
+    @Benchmark
+    public long estimate() {
+        AuctionAccumulator accumulator = collected.auctions();
+        long sum = 0;
+        for (int slot = 0; slot < accumulator.size(); slot++) {
+            sum += priceEstimator.estimate(
+                accumulator.prices(slot), accumulator.quantities(slot), accumulator.count(slot));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public ItemPrices aggregate(Pool pool) {
+        return pool.auctionProcesser.calculateAveragePrices(collected.auctions());
+    }
+}
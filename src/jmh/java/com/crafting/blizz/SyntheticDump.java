@@ -0,0 +1,153 @@
+package com.crafting.blizz;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic stand-in for a commodities dump. The same arguments always give
+ * the same bytes, so benchmark runs on different commits see the same input.
+ *
+ * Auctions are spread over a fixed universe of item IDs with a skew towards the
+ * popular ones, as in a real dump; every item has its own price level and
+ * auctions scatter around it. Field order and the extra fields follow the API
+ * response, so the parser skips as much as it would in production.
+ */
+final class SyntheticDump {
+    // distinct commodities in a dump, roughly what the EU commodities AH lists
+    static final int ITEM_UNIVERSE = 30_000;
+    private static final int FIRST_ITEM_ID = 190_000;
+    private static final String[] TIME_LEFT = {"SHORT", "MEDIUM", "LONG", "VERY_LONG"};
+
+    private final byte[] json;
+    private final int[] itemIds;
+    private final long[] unitPrices;
+    private final int[] quantities;
+    private final BitSet tracked;
+
+    private SyntheticDump(byte[] json, int[] itemIds, long[] unitPrices, int[] quantities, BitSet tracked) {
+        this.json = json;
+        this.itemIds = itemIds;
+        this.unitPrices = unitPrices;
+        this.quantities = quantities;
+        this.tracked = tracked;
+    }
+
+    /**
+     * @param auctions number of auctions in the dump
+     * @param trackedItems number of item IDs of the universe that count as tracked
+     * @param seed random seed
+     */
+    static SyntheticDump generate(int auctions, int trackedItems, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] priceLevel = new long[ITEM_UNIVERSE];
+        for (int i = 0; i < ITEM_UNIVERSE; i++) {
+            // from a few copper to tens of thousands of gold
+            priceLevel[i] = (long) Math.exp(random.nextDouble(2, 20));
+        }
+
+        Ascii out = new Ascii(auctions * 96);
+        out.append("{\"_links\":{\"self\":{\"href\":\"https://eu.api.blizzard.com/data/wow/auctions/commodities")
+            .append("?namespace=dynamic-eu\"}},\"auctions\":[");
+        int[] itemIds = new int[auctions];
+        long[] unitPrices = new long[auctions];
+        int[] quantities = new int[auctions];
+        for (int i = 0; i < auctions; i++) {
+            // squaring skews picks towards the low (popular) indexes
+            double u = random.nextDouble();
+            int item = (int) (u * u * ITEM_UNIVERSE);
+            itemIds[i] = FIRST_ITEM_ID + item;
+            long unitPrice = Math.max(1, (long) (priceLevel[item] * random.nextDouble(0.8, 1.6)));
+            int quantity = 1 + (int) Math.min(999, -Math.log(1 - random.nextDouble()) * 40);
+            unitPrices[i] = unitPrice;
+            quantities[i] = quantity;
+            if (i > 0) out.append(',');
+            out.append("{\"id\":").append(1_000_000_000L + i)
+                .append(",\"item\":{\"id\":").append(itemIds[i]).append('}')
+                .append(",\"quantity\":").append(quantity)
+                .append(",\"unit_price\":").append(unitPrice)
+                .append(",\"time_left\":\"").append(TIME_LEFT[random.nextInt(TIME_LEFT.length)]).append("\"}");
+        }
+        out.append("],\"commodities\":{\"href\":\"https://eu.api.blizzard.com/data/wow/auctions/commodities\"}}");
+
+        // spread the tracked IDs evenly over the universe, popular and rare alike
+        BitSet tracked = new BitSet(FIRST_ITEM_ID + ITEM_UNIVERSE);
+        int count = Math.min(trackedItems, ITEM_UNIVERSE);
+        for (int k = 0; k < count; k++) {
+            tracked.set(FIRST_ITEM_ID + (int) ((long) k * ITEM_UNIVERSE / count));
+        }
+        return new SyntheticDump(out.toBytes(), itemIds, unitPrices, quantities, tracked);
+    }
+
+    byte[] json() {
+        return json;
+    }
+
+    String jsonString() {
+        return new String(json, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return item ID of every auction, in dump order
+     */
+    int[] itemIds() {
+        return itemIds;
+    }
+
+    /**
+     * @return unit price of every auction, in dump order
+     */
+    long[] unitPrices() {
+        return unitPrices;
+    }
+
+    /**
+     * @return quantity of every auction, in dump order
+     */
+    int[] quantities() {
+        return quantities;
+    }
+
+    BitSet tracked() {
+        return tracked;
+    }
+
+    // growable ASCII buffer, avoids building a String twice the dump's size
+    private static final class Ascii {
+        private byte[] bytes;
+        private int length;
+
+        Ascii(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        Ascii append(String s) {
+            ensure(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                bytes[length++] = (byte) s.charAt(i);
+            }
+            return this;
+        }
+
+        Ascii append(char c) {
+            ensure(1);
+            bytes[length++] = (byte) c;
+            return this;
+        }
+
+        Ascii append(long value) {
+            return append(Long.toString(value));
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+        byte[] toBytes() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+}
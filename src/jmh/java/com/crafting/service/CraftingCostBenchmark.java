@@ -0,0 +1,75 @@
+package com.crafting.service;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.crafting.model.RecipeGraph;
+
+/**
+ * Crafting cost recomputes over a layered recipe graph. {@code recomputeAll} is
+ * what a recipe reload or the first request pays; {@code recomputeChanged} is the
+ * per-fetch update after one base reagent changed price, toggled between two
+ * prices so every invocation has work to do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CraftingCostBenchmark {
+
+    @Param({"2000", "20000"})
+    public int recipes;
+
+    private RecipeGraph graph;
+    private CraftingCostCalculator calculator;
+    private long changedItemId;
+    private boolean toggle;
+
+    @Setup
+    public void setUp() {
+        graph = layeredGraph(new Random(3), recipes, recipes / 2);
+        calculator = new CraftingCostCalculator(graph);
+        for (int item = 0; item < graph.itemCount(); item++) {
+            calculator.setMarketPrice(graph.itemId(item), 100 + item % 997);
+        }
+        calculator.recomputeAll();
+        changedItemId = graph.itemId(0);
+    }
+
+    @Benchmark
+    public int recomputeAll() {
+        return calculator.recomputeAll();
+    }
+
+    @Benchmark
+    public int recomputeChanged() {
+        toggle = !toggle;
+        calculator.setMarketPrice(changedItemId, toggle ? 1 : 100);
+        return calculator.recomputeChanged();
+    }
+
+    /**
+     * Recipe i makes item baseItems + i from up to four lower items, so
+     * intermediate reagents chain several levels deep.
+     */
+    private static RecipeGraph layeredGraph(Random random, int recipes, int baseItems) {
+        RecipeGraph.Builder builder = new RecipeGraph.Builder();
+        for (int i = 0; i < recipes; i++) {
+            long output = baseItems + i;
+            builder.addRecipe(i + 1, output, 1 + random.nextInt(3));
+            int ingredients = 1 + random.nextInt(4);
+            for (int k = 0; k < ingredients; k++) {
+                builder.addIngredient(i + 1, random.nextInt((int) output), 1 + random.nextInt(5));
+            }
+        }
+        return builder.build();
+    }
+}
@@ -1,20 +1,42 @@
 package com.crafting.blizz;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
-import jakarta.transaction.Transactional;
+import jakarta.annotation.PreDestroy;
 
-import org.springframework.http.*;
 import org.springframework.scheduling.annotation.Scheduled;
 
-import java.util.HashSet;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
 
-import com.crafting.repository.ItemRepository;
-import com.crafting.model.Item;
+import com.crafting.repository.PriceWriteResult;
+import com.crafting.service.CraftingCostService;
+import com.crafting.service.ItemService;
+import com.crafting.service.PriceBatchWriter;
+import com.crafting.service.PriceHistoryPartitionMaintainer;
+import com.crafting.service.PricePersistenceService;
+import com.crafting.service.ProfitLeaderboardService;
+import com.crafting.service.TrackedItemIndex;
 
 
 @Service
@@ -26,109 +48,419 @@ public class AHDataFetcher {
     private final AuctionProcesser auctionProcesser;
     private String clientId;
     private String clientSecret;
-    private final ItemRepository itemRepository;
-    private final ReentrantLock fetchLock = new ReentrantLock();
+    private final TrackedItemIndex trackedItemIndex;
+    private final ItemService itemService;
+    private final CraftingCostService craftingCostService;
+    private final ProfitLeaderboardService profitLeaderboardService;
+    private final PricePersistenceService pricePersistenceService;
+    private final FetchScheduler fetchScheduler;
+    private final FetchMetrics fetchMetrics;
+    private final SnapshotStore snapshotStore;
+    private final PriceHistoryPartitionMaintainer priceHistoryPartitionMaintainer;
+    private List<FetchTarget> targets;
+    private String primaryTarget;
+
+    // jobs run one at a time on their own thread, never on the caller's
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(
+        Thread.ofPlatform().name("ah-fetch-job").daemon().factory());
+    // most recent jobs by ID, oldest evicted first
+    private final Map<String, FetchJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FetchJob> eldest) {
+            return size() > MAX_JOBS_KEPT;
+        }
+    };
+    private FetchJob currentJob;
+    private static final int MAX_JOBS_KEPT = 50;
+
+    /**
+     * Outcome of a fetch submission.
+     * @param job the new job, or the one already running if nothing was started
+     * @param started true if a new job was queued
+     */
+    public record Submission(FetchJob job, boolean started) {
+    }
 
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(AHDataFetcher.class);
 
 
     public AHDataFetcher(BlizzConfig blizzConfig, TokenService tokenService,
-                        BlizzApiClient blizzApiClient, AuctionProcesser auctionProcesser, ItemRepository itemRepository) {
+                        BlizzApiClient blizzApiClient, AuctionProcesser auctionProcesser, TrackedItemIndex trackedItemIndex,
+                        PricePersistenceService pricePersistenceService, FetchScheduler fetchScheduler,
+                        ItemService itemService, CraftingCostService craftingCostService,
+                        ProfitLeaderboardService profitLeaderboardService, FetchMetrics fetchMetrics,
+                        SnapshotStore snapshotStore, PriceHistoryPartitionMaintainer priceHistoryPartitionMaintainer) {
         this.blizzConfig = blizzConfig;
         this.tokenService = tokenService;
         this.blizzApiClient = blizzApiClient;
         this.auctionProcesser = auctionProcesser;
-        this.itemRepository = itemRepository;
-    }
-
-    //gets item IDs from repo
-    //set unnecesary since IDs should be unique
-    //change later
-    private HashSet<Integer> fetchDbItemIds() {
-        logger.debug("Fetching item IDs from database");
-        List<Item> items = itemRepository.findAll();
-        HashSet<Integer> itemIds = new HashSet<>();
-        for (Item item : items) {
-            itemIds.add(item.getId().intValue());
-        }
-        logger.debug("Fetched {} item IDs from database", itemIds.size());
-        return itemIds;
+        this.trackedItemIndex = trackedItemIndex;
+        this.pricePersistenceService = pricePersistenceService;
+        this.fetchScheduler = fetchScheduler;
+        this.itemService = itemService;
+        this.craftingCostService = craftingCostService;
+        this.profitLeaderboardService = profitLeaderboardService;
+        this.fetchMetrics = fetchMetrics;
+        this.snapshotStore = snapshotStore;
+        this.priceHistoryPartitionMaintainer = priceHistoryPartitionMaintainer;
     }
 
     // runs every 20 minutes
     @Scheduled(cron = "0 */20 * * * *")
     public void callApi() {
+        if (isOffline()) {
+            logger.debug("Offline mode, skipping scheduled fetch");
+            return;
+        }
         logger.info("Scheduled task triggered: Fetching AH data");
         try {
-            triggerFetch();
+            Submission submission = submitFetch("scheduled");
+            if (!submission.started()) {
+                logger.warn("Previous fetch job {} still running, skipping scheduled fetch", submission.job().getId());
+            }
         } catch (Exception e) {
             logger.error("Error during scheduled fetch", e);
         }
     }
 
-    @Transactional
-    private void saveItemsToDb(Map<Integer, Long> avgPrices) {
-        for (Map.Entry<Integer, Long> entry : avgPrices.entrySet()) {
-            Integer itemId = entry.getKey();
-            Long avgPrice = entry.getValue();
-            Item item = itemRepository.findById(itemId.longValue()).orElse(null);
-            if (item != null) {
-                logger.info("Updating item ID {} with new average price {}", itemId, avgPrice);
-                item.setCurrentPrice(avgPrice);
-                itemRepository.save(item);
-            } else {
-                // Optionally handle missing item (e.g., log or create new)
-                logger.warn("Item with ID {} not found in DB.", itemId);
-            }
+    /**
+     * Queues a fetch of all configured targets and returns immediately; the job runs
+     * on the fetch job thread and its progress is available from {@link #getJob(String)}.
+     * Only one job runs at a time.
+     * @param trigger what started the fetch, "manual" or "scheduled"
+     * @return the new job, or the job already running
+     * @throws IllegalStateException if the client credentials are missing or the
+     * application runs offline
+     */
+    public synchronized Submission submitFetch(String trigger) {
+        logger.debug("Fetch submitted ({})", trigger);
+        if (isOffline()) {
+            throw new IllegalStateException("Offline mode, fetches are disabled");
         }
+        if (clientId == null || clientSecret == null) {
+            logger.warn("Missing clientId/secret - check env vars and application.properties");
+            throw new IllegalStateException("Missing Blizzard API credentials");
+        }
+        if (currentJob != null && !currentJob.isFinished()) {
+            return new Submission(currentJob, false);
+        }
+        FetchJob job = new FetchJob(trigger, targets);
+        currentJob = job;
+        jobs.put(job.getId(), job);
+        jobExecutor.execute(() -> runJob(job));
+        return new Submission(job, true);
     }
 
     /**
-     * Method for manually triggering the fetch process, can be called from controller
-     * @return true if fetch started, false if already in progress or missing credentials
+     * Queues an offline replay of archived dumps through the same collect, price
+     * and persist steps as a fetch, as fast as the pipeline allows. Prices are
+     * recorded at the time each dump was generated and snapshots are replayed
+     * oldest first, so a directory of archived dumps backfills the price history.
+     * Replaying is idempotent: history rows and rollup samples a dump already
+     * produced are not added again, and current prices only move forward. Throughput
+     * is logged when the job finishes. Shares the job thread with fetches, so
+     * nothing is started while a fetch or replay is running.
+     * @param fileOrDirectory one snapshot, or a directory of them
+     * @return the new job, or the job already running
+     * @throws IOException if there is no snapshot at that path
      */
-    public boolean triggerFetch() {
-        logger.debug("Manual fetch trigger called");
-        if (!fetchLock.tryLock()) {
-            logger.warn("Fetch already in progress, skipping new trigger");
-            return false;
+    public synchronized Submission submitReplay(Path fileOrDirectory) throws IOException {
+        logger.debug("Replay of {} submitted", fileOrDirectory);
+        if (currentJob != null && !currentJob.isFinished()) {
+            return new Submission(currentJob, false);
         }
+        List<SnapshotStore.Snapshot> snapshots = snapshotStore.find(fileOrDirectory);
+        FetchJob job = FetchJob.replay(snapshots);
+        currentJob = job;
+        jobs.put(job.getId(), job);
+        jobExecutor.execute(() -> runReplay(job, snapshots));
+        return new Submission(job, true);
+    }
+
+    /**
+     * Same as {@link #submitReplay(Path)} for dumps in the snapshot directory.
+     * @param sha256 hash of one archived dump, or null to replay all of them
+     * @throws IllegalStateException if no snapshot directory is configured
+     * @throws IllegalArgumentException if the hash is malformed
+     */
+    public Submission submitSnapshotReplay(String sha256) throws IOException {
+        return submitReplay(snapshotStore.locate(sha256));
+    }
+
+    // offline mode: a replay path is configured, nothing is fetched from Blizzard
+    private boolean isOffline() {
+        return blizzConfig.getReplayPath() != null && !blizzConfig.getReplayPath().isBlank();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayOnStartup() {
+        if (!isOffline()) {
+            return;
+        }
+        logger.info("Offline mode: replaying {}", blizzConfig.getReplayPath());
+        try {
+            submitReplay(Paths.get(blizzConfig.getReplayPath()));
+        } catch (Exception e) {
+            logger.error("Could not start replay of {}", blizzConfig.getReplayPath(), e);
+        }
+    }
+
+    /**
+     * @param id job ID
+     * @return the job, if it is one of the recent ones
+     */
+    public synchronized Optional<FetchJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Fetches all configured targets concurrently and waits for them to finish.
+     * The job fails if any target did. Runs on the fetch job thread.
+     */
+    private void runJob(FetchJob job) {
+        job.running();
+        logger.info("Fetch job {} started", job.getId());
         try {
-            if (clientId == null || clientSecret == null) {
-            logger.warn("Missing clientId/secret - check env vars and application.properties");
-            return false;
-            }
             String accessToken = tokenService.getAccessToken(clientId, clientSecret);
-            ResponseEntity<String> resp = blizzApiClient.fetchCommodities(accessToken);
-            logger.debug("API response status: " + resp.getStatusCode());
-            String body = resp.getBody();
-            if (body != null) {
-                // Collect matching auctions
-                logger.debug("Processing auction data");
-                Map<Integer, List<AuctionEntry>> matches = auctionProcesser.processAndCollect(
-                    body,
-                    fetchDbItemIds()
-                );
-                // Calculate average prices
-                logger.debug("Calculating average prices for matched items");
-                Map<Integer, Long> avgPrices = auctionProcesser.calculateAveragePrices(matches);
-                // Save to DB
-                logger.debug("Saving average prices to database");
-                saveItemsToDb(avgPrices);
+            int started = fetchScheduler.runAll(targets, target -> {
+                FetchJob.TargetProgress progress = job.target(target.key());
+                try {
+                    return fetchTarget(target, accessToken, progress);
+                } catch (Exception e) {
+                    progress.failed(e);
+                    throw e;
+                } finally {
+                    fetchMetrics.targetFinished(progress);
+                }
+            });
+            long failed = job.getTargets().stream()
+                .filter(t -> t.getStage() == FetchJob.Stage.FAILED)
+                .count();
+            if (started == 0) {
+                logger.warn("Fetch already in progress for every target");
+            } else if (failed < started) {
+                // cycle done: rank recipes once at the new prices and push to subscribers
+                try {
+                    profitLeaderboardService.refresh();
+                } catch (Exception e) {
+                    logger.error("Refreshing profit leaderboards failed", e);
+                }
+            }
+            if (failed > 0) {
+                job.failed(new IllegalStateException(failed + " of " + started + " targets failed"));
+            } else {
+                job.succeeded();
             }
-            return true;
+            fetchMetrics.jobFinished(job);
+            logger.info("Fetch job {} finished: {} bytes, {} auctions seen, {} items priced, {} targets failed",
+                job.getId(), job.getBytesRead(), job.getAuctionsSeen(), job.getItemsPriced(), failed);
         } catch (Exception e) {
-            e.printStackTrace();
-            return false;
-        } finally {
-            fetchLock.unlock();
+            job.failed(e);
+            fetchMetrics.jobFinished(job);
+            logger.error("Fetch job {} failed", job.getId(), e);
+        }
+    }
+
+    private FetchScheduler.TargetResult fetchTarget(FetchTarget target, String accessToken,
+                                                    FetchJob.TargetProgress progress) throws InterruptedException {
+        // Collect matching auctions straight from the response stream
+        logger.debug("Processing auction data of {}", target.key());
+        progress.start(FetchJob.Stage.DOWNLOAD);
+        Optional<BlizzApiClient.Fetched<AuctionAccumulator>> fetched = blizzApiClient.fetchAuctions(
+            target,
+            accessToken,
+            // tracked IDs are only resolved once a changed dump is actually arriving
+            body -> auctionProcesser.collect(body, trackedItemIndex.snapshot()),
+            progress
+        );
+        if (fetched.isEmpty()) {
+            // dump unchanged since the last processed fetch, nothing to update
+            progress.notModified();
+            return FetchScheduler.TargetResult.notModified();
+        }
+        progress.end(FetchJob.Stage.PARSE);
+        int priced = ingest(target.key(), fetched.get().result(), OffsetDateTime.now(), false, progress);
+        // only skip this dump from now on once its prices are stored
+        blizzApiClient.markProcessed(fetched.get());
+        return new FetchScheduler.TargetResult(true, priced);
+    }
+
+    /**
+     * Prices collected auctions and stores them: the part of a fetch after the
+     * dump was parsed, shared with replays.
+     * @param source target key the prices are stored under
+     * @param matches auctions of tracked items
+     * @param recordedAt timestamp the prices are stored with
+     * @param replay whether the prices come from an archived dump, which may be older
+     *               than the current prices; crafting costs are then recomputed once the replay is done
+     * @param progress progress of the target
+     * @return number of items priced
+     */
+    private int ingest(String source, AuctionAccumulator matches, OffsetDateTime recordedAt, boolean replay,
+                       FetchJob.TargetProgress progress) throws InterruptedException {
+        progress.collected(matches);
+        logger.debug("Collected {} auctions for {} items from {}", matches.auctionCount(), matches.size(), source);
+        // Price in batches and save each batch while the next one is priced
+        progress.start(FetchJob.Stage.AGGREGATE);
+        long writeStart = System.nanoTime();
+        boolean primary = source.equals(primaryTarget);
+        ItemPrices avgPrices;
+        PriceWriteResult written;
+        try (PriceBatchWriter writer = new PriceBatchWriter(pricePersistenceService, recordedAt,
+                source, primary, blizzConfig.getPersistQueueBatches())) {
+            avgPrices = auctionProcesser.calculateAveragePrices(matches, blizzConfig.getPersistBatchSize(), batch -> {
+                progress.start(FetchJob.Stage.PERSIST);
+                writer.submit(batch);
+            });
+            progress.end(FetchJob.Stage.AGGREGATE);
+            written = writer.finish();
+        }
+        progress.persisted(written.updated(), written.missing());
+        if (primary) {
+            // current prices changed, cached items are stale once the write committed
+            itemService.evictAll();
+            if (!replay) {
+                try {
+                    craftingCostService.applyPrices(avgPrices);
+                } catch (Exception e) {
+                    // prices are stored; costs catch up on the next fetch or full recompute
+                    logger.error("Updating crafting costs failed", e);
+                }
+            }
+        }
+        logger.info("Updated {} item prices and history of {} in {} ms", written.updated(), source,
+            (System.nanoTime() - writeStart) / 1_000_000);
+        if (written.missing() > 0) {
+            logger.warn("{} priced items not found in DB: {}", written.missing(),
+                Arrays.toString(written.missingItemIds()));
+        }
+        progress.done(avgPrices.size());
+        return avgPrices.size();
+    }
+
+    /**
+     * Replays snapshots one after another. A snapshot that fails is reported and
+     * skipped; the job fails at the end if any did. Replaying a snapshot again adds
+     * no history and never moves current prices back. Runs on the fetch job thread.
+     */
+    private void runReplay(FetchJob job, List<SnapshotStore.Snapshot> snapshots) {
+        job.running();
+        logger.info("Replay job {} started: {} snapshots", job.getId(), snapshots.size());
+        long startedNanos = System.nanoTime();
+        if (!snapshots.isEmpty()) {
+            // history of past months goes into partitions that may not exist yet
+            try {
+                priceHistoryPartitionMaintainer.ensurePartitions(
+                    YearMonth.from(snapshots.get(0).recordedAt().withOffsetSameInstant(ZoneOffset.UTC)),
+                    YearMonth.from(snapshots.get(snapshots.size() - 1).recordedAt()
+                        .withOffsetSameInstant(ZoneOffset.UTC)));
+            } catch (Exception e) {
+                logger.error("Creating price history partitions for replay job {} failed", job.getId(), e);
+            }
+        }
+        long jsonBytes = 0;
+        int failed = 0;
+        for (SnapshotStore.Snapshot snapshot : snapshots) {
+            FetchJob.TargetProgress progress = job.target(snapshot.label());
+            try {
+                jsonBytes += replaySnapshot(snapshot, progress);
+            } catch (InterruptedException e) {
+                progress.failed(e);
+                Thread.currentThread().interrupt();
+                job.failed(e);
+                logger.warn("Replay job {} interrupted", job.getId());
+                return;
+            } catch (Exception e) {
+                progress.failed(e);
+                failed++;
+                logger.error("Replaying {} failed", snapshot.file(), e);
+            }
+        }
+        if (failed < snapshots.size()) {
+            try {
+                // from the stored current prices, which an old snapshot does not move back
+                craftingCostService.recomputeAll();
+                profitLeaderboardService.refresh();
+            } catch (Exception e) {
+                logger.error("Recomputing crafting costs after the replay failed", e);
+            }
         }
+        if (failed > 0) {
+            job.failed(new IllegalStateException(failed + " of " + snapshots.size() + " snapshots failed"));
+        } else {
+            job.succeeded();
+        }
+        logThroughput(job, jsonBytes, System.nanoTime() - startedNanos);
     }
 
+    /**
+     * Reads one snapshot from disk through the parse pipeline and ingests it.
+     * Reading the file stands in for the download stage.
+     * @return decompressed bytes of JSON read
+     */
+    private long replaySnapshot(SnapshotStore.Snapshot snapshot, FetchJob.TargetProgress progress)
+            throws IOException, InterruptedException {
+        logger.debug("Replaying {} from {}", snapshot.label(), snapshot.file());
+        progress.start(FetchJob.Stage.DOWNLOAD);
+        BlizzApiClient.BodyHandler<AuctionAccumulator> collect =
+            body -> auctionProcesser.collect(body, trackedItemIndex.snapshot());
+        AuctionAccumulator matches;
+        long jsonBytes;
+        try (TeeInputStream raw = new TeeInputStream(Files.newInputStream(snapshot.file()), null);
+             TeeInputStream json = new TeeInputStream(
+                 new GZIPInputStream(raw, BlizzApiClient.STREAM_BUFFER_SIZE), null)) {
+            AtomicBoolean finished = new AtomicBoolean();
+            Runnable read = () -> {
+                if (finished.compareAndSet(false, true)) {
+                    progress.bodyFinished(raw.getBytesRead());
+                }
+            };
+            progress.bodyStarted(raw::getBytesRead);
+            if (blizzConfig.getPipelineChunks() > 0) {
+                matches = ChunkPipe.handle("replay-" + snapshot.label(), json, blizzConfig.getPipelineChunks(),
+                    BlizzApiClient.STREAM_BUFFER_SIZE, collect, read);
+            } else {
+                matches = collect.handle(json);
+            }
+            // a handler that stops before the end also stops the pipe before it completes
+            read.run();
+            jsonBytes = json.getBytesRead();
+        }
+        progress.end(FetchJob.Stage.PARSE);
+        ingest(snapshot.target(), matches, snapshot.recordedAt(), true, progress);
+        return jsonBytes;
+    }
+
+    private void logThroughput(FetchJob job, long jsonBytes, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        Map<FetchJob.Stage, Long> stageMillis = new EnumMap<>(FetchJob.Stage.class);
+        for (FetchJob.TargetProgress progress : job.getTargets()) {
+            progress.getStageMillis().forEach((stage, millis) -> stageMillis.merge(stage, millis, Long::sum));
+        }
+        logger.info(String.format(Locale.ROOT,
+            "Replay job %s %s: %d snapshots in %.1f s, %.1f MB compressed (%.1f MB/s), %.1f MB JSON (%.1f MB/s), "
+                + "%d auctions (%.0f/s), %d matched, %d items priced; stage ms %s",
+            job.getId(), job.getState().name().toLowerCase(Locale.ROOT), job.getTargets().size(), seconds,
+            job.getBytesRead() / 1e6, job.getBytesRead() / 1e6 / seconds, jsonBytes / 1e6, jsonBytes / 1e6 / seconds,
+            job.getAuctionsSeen(), job.getAuctionsSeen() / seconds, job.getAuctionsMatched(), job.getItemsPriced(),
+            stageMillis));
+    }
+
+    public Collection<FetchTargetStatus> getTargetStatuses() {
+        return fetchScheduler.getStatuses();
+    }
 
     @PostConstruct
     public void init() {
         clientId = blizzConfig.getClientId();
         clientSecret = blizzConfig.getClientSecret();
+        targets = blizzConfig.getTargets().stream().map(FetchTarget::parse).toList();
+        primaryTarget = blizzConfig.getPrimaryTarget();
+        logger.info("Fetch targets: {}", targets.stream().map(FetchTarget::key).toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
     }
 }
@@ -0,0 +1,152 @@
+package com.crafting.blizz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects auctions per item into primitive columns. Items are keyed by an
+ * open-addressing int map and every item owns a growable {@code long[]} of unit
+ * prices and {@code int[]} of quantities, so adding an auction does not allocate
+ * unless a column has to grow.
+ */
+public class AuctionAccumulator {
+    private static final int INITIAL_TABLE_SIZE = 64;
+    private static final int INITIAL_COLUMN_SIZE = 8;
+
+    // open-addressing table: item id -> slot + 1 (0 marks an empty bucket)
+    private int[] tableKeys = new int[INITIAL_TABLE_SIZE];
+    private int[] tableSlots = new int[INITIAL_TABLE_SIZE];
+
+    private int[] itemIds = new int[INITIAL_TABLE_SIZE / 2];
+    private long[][] prices = new long[INITIAL_TABLE_SIZE / 2][];
+    private int[][] quantities = new int[INITIAL_TABLE_SIZE / 2][];
+    private int[] counts = new int[INITIAL_TABLE_SIZE / 2];
+    private int size;
+    private long auctionCount;
+    private long auctionsSeen;
+
+    /**
+     * Appends an auction for the given item. Item ID 0 is reserved and must not be used.
+     */
+    public void add(int itemId, long unitPrice, int quantity) {
+        int slot = slotFor(itemId);
+        int count = counts[slot];
+        if (count == prices[slot].length) {
+            int grown = count * 2;
+            prices[slot] = Arrays.copyOf(prices[slot], grown);
+            quantities[slot] = Arrays.copyOf(quantities[slot], grown);
+        }
+        prices[slot][count] = unitPrice;
+        quantities[slot][count] = quantity;
+        counts[slot] = count + 1;
+        auctionCount++;
+    }
+
+    /** Number of distinct items collected. */
+    public int size() {
+        return size;
+    }
+
+    /** Total number of auctions collected across all items. */
+    public long auctionCount() {
+        return auctionCount;
+    }
+
+    /** Number of auctions read from the dump, including the ones that were not collected. */
+    public long auctionsSeen() {
+        return auctionsSeen;
+    }
+
+    void countSeen() {
+        auctionsSeen++;
+    }
+
+    public int itemId(int slot) {
+        return itemIds[slot];
+    }
+
+    public int count(int slot) {
+        return counts[slot];
+    }
+
+    /** Unit price column of a slot; only the first {@link #count(int)} values are valid. */
+    public long[] prices(int slot) {
+        return prices[slot];
+    }
+
+    /** Quantity column of a slot; only the first {@link #count(int)} values are valid. */
+    public int[] quantities(int slot) {
+        return quantities[slot];
+    }
+
+    /**
+     * Boxed view of the collected auctions, mostly useful for tests and debugging.
+     */
+    public Map<Integer, List<AuctionEntry>> toAuctionEntries() {
+        Map<Integer, List<AuctionEntry>> result = new HashMap<>();
+        for (int slot = 0; slot < size; slot++) {
+            List<AuctionEntry> entries = new ArrayList<>(counts[slot]);
+            for (int i = 0; i < counts[slot]; i++) {
+                entries.add(new AuctionEntry(prices[slot][i], quantities[slot][i]));
+            }
+            result.put(itemIds[slot], entries);
+        }
+        return result;
+    }
+
+    private int slotFor(int itemId) {
+        int mask = tableKeys.length - 1;
+        int bucket = mix(itemId) & mask;
+        while (tableKeys[bucket] != 0) {
+            if (tableKeys[bucket] == itemId) {
+                return tableSlots[bucket] - 1;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        int slot = newSlot(itemId);
+        if (size * 2 > tableKeys.length) {
+            rehash(tableKeys.length * 2);
+        } else {
+            tableKeys[bucket] = itemId;
+            tableSlots[bucket] = slot + 1;
+        }
+        return slot;
+    }
+
+    private int newSlot(int itemId) {
+        if (size == itemIds.length) {
+            int grown = size * 2;
+            itemIds = Arrays.copyOf(itemIds, grown);
+            prices = Arrays.copyOf(prices, grown);
+            quantities = Arrays.copyOf(quantities, grown);
+            counts = Arrays.copyOf(counts, grown);
+        }
+        int slot = size++;
+        itemIds[slot] = itemId;
+        prices[slot] = new long[INITIAL_COLUMN_SIZE];
+        quantities[slot] = new int[INITIAL_COLUMN_SIZE];
+        return slot;
+    }
+
+    private void rehash(int tableSize) {
+        tableKeys = new int[tableSize];
+        tableSlots = new int[tableSize];
+        int mask = tableSize - 1;
+        for (int slot = 0; slot < size; slot++) {
+            int bucket = mix(itemIds[slot]) & mask;
+            while (tableKeys[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            tableKeys[bucket] = itemIds[slot];
+            tableSlots[bucket] = slot + 1;
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,19 +1,46 @@
 package com.crafting.blizz;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntPredicate;
 
 @Service
 public class AuctionProcesser {
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int PRICE_TASK_GRAIN = 32;
+    private final PriceEstimator priceEstimator;
+    private final int parallelThreshold;
+    private final ForkJoinPool pricingPool;
+
+    public AuctionProcesser(PriceEstimator priceEstimator, BlizzConfig blizzConfig) {
+        this.priceEstimator = priceEstimator;
+        int parallelism = blizzConfig.getPriceParallelism() > 0
+            ? blizzConfig.getPriceParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        this.parallelThreshold = blizzConfig.getPriceParallelThreshold();
+        this.pricingPool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pricingPool != null) {
+            pricingPool.shutdownNow();
+        }
+    }
 
     public Map<Integer, List<AuctionEntry>> processAndCollect(String body, Set<Integer> dbIds) throws IOException {
         JsonNode root = objectMapper.readTree(body);
@@ -24,14 +51,225 @@ public class AuctionProcesser {
         for (JsonNode a : auctions) {
             int itemId = a.path("item").path("id").asInt(0);
             if (itemId == 0 || !dbIds.contains(itemId)) continue;
-            long unitPrice = a.path("unit_price").asLong(0);
             int quantity = a.path("quantity").asInt(0);
+            long unitPrice;
+            if (a.has("unit_price")) {
+                unitPrice = a.path("unit_price").asLong(0);
+            } else if (a.has("buyout")) {
+                // realm auctions price the whole stack
+                unitPrice = a.path("buyout").asLong(0) / Math.max(1, quantity);
+            } else {
+                continue; // bid-only auction, no buyout price to use
+            }
             result.computeIfAbsent(itemId, k -> new ArrayList<>())
                     .add(new AuctionEntry(unitPrice, quantity));
         }
         return result;
     }
 
+    /**
+     * Streaming variant of {@link #processAndCollect(String, Set)}. Pull-parses the
+     * commodities dump token by token so the payload is never held in memory as a
+     * whole, and skips the rest of an auction as soon as its item id turns out to be
+     * untracked. Matching auctions go straight into primitive columns, so the loop
+     * does not allocate per auction.
+     * @param body raw commodities response body, closed when parsing ends
+     * @param tracked test for the item IDs to collect auctions for
+     * @return matching auctions grouped by item ID
+     */
+    public AuctionAccumulator collect(InputStream body, IntPredicate tracked) throws IOException {
+        AuctionAccumulator result = new AuctionAccumulator();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return result;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("auctions".equals(field) && value == JsonToken.START_ARRAY) {
+                    readAuctions(parser, tracked, result);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return result;
+    }
+
+    private void readAuctions(JsonParser parser, IntPredicate tracked,
+                              AuctionAccumulator result) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            result.countSeen();
+            int itemId = 0;
+            long unitPrice = 0;
+            long buyout = 0;
+            boolean hasUnitPrice = false;
+            boolean hasBuyout = false;
+            int quantity = 0;
+            boolean dropped = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "item" -> {
+                        itemId = readItemId(parser);
+                        dropped = itemId == 0 || !tracked.test(itemId);
+                    }
+                    case "unit_price" -> {
+                        unitPrice = parser.getValueAsLong(0);
+                        hasUnitPrice = true;
+                    }
+                    case "buyout" -> {
+                        buyout = parser.getValueAsLong(0);
+                        hasBuyout = true;
+                    }
+                    case "quantity" -> quantity = parser.getValueAsInt(0);
+                    default -> { }
+                }
+                parser.skipChildren();
+                if (dropped) {
+                    skipRemainingFields(parser);
+                    break;
+                }
+            }
+            if (dropped || itemId == 0) continue;
+            if (!hasUnitPrice) {
+                // realm auctions price the whole stack; bid-only auctions have no price to use
+                if (!hasBuyout) continue;
+                unitPrice = buyout / Math.max(1, quantity);
+            }
+            result.add(itemId, unitPrice, quantity);
+        }
+    }
+
+    private int readItemId(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) return 0;
+        int itemId = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("id".equals(field)) {
+                itemId = parser.getValueAsInt(0);
+            }
+            parser.skipChildren();
+        }
+        return itemId;
+    }
+
+    private void skipRemainingFields(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * Prices every collected item with the configured {@link PriceEstimator},
+     * directly on the accumulator's columns. Items are independent, so large item
+     * sets are split across the pricing pool; each task writes only its own slots
+     * and results are emitted in slot order, so the output does not depend on
+     * scheduling.
+     * @param auctions auctions collected by {@link #collect(InputStream, IntPredicate)}
+     * @return price per item, items without quantity are left out
+     */
+    public ItemPrices calculateAveragePrices(AuctionAccumulator auctions) {
+        int items = auctions.size();
+        long[] slotPrices = new long[items];
+        priceRange(auctions, slotPrices, 0, items);
+
+        ItemPrices averagePrices = new ItemPrices(items);
+        for (int slot = 0; slot < items; slot++) {
+            if (slotPrices[slot] != PriceEstimator.NO_PRICE) {
+                averagePrices.add(auctions.itemId(slot), slotPrices[slot]);
+            }
+        }
+        return averagePrices;
+    }
+
+    /**
+     * Receives priced items batch by batch. May block to slow pricing down.
+     */
+    @FunctionalInterface
+    public interface BatchSink {
+        void accept(ItemPrices batch) throws InterruptedException;
+    }
+
+    /**
+     * Like {@link #calculateAveragePrices(AuctionAccumulator)}, but prices the items
+     * in batches of slots and hands every batch to the sink as soon as it is priced,
+     * so the batches can be written while the rest is still being computed.
+     * @param auctions auctions collected by {@link #collect(InputStream, IntPredicate)}
+     * @param batchSize slots priced per batch
+     * @param sink receiver of each non-empty batch, in slot order
+     * @return all prices, in the same order as the batches
+     */
+    public ItemPrices calculateAveragePrices(AuctionAccumulator auctions, int batchSize,
+                                             BatchSink sink) throws InterruptedException {
+        int items = auctions.size();
+        int step = Math.max(1, batchSize);
+        long[] slotPrices = new long[items];
+        ItemPrices averagePrices = new ItemPrices(items);
+        for (int from = 0; from < items; from += step) {
+            int to = Math.min(items, from + step);
+            priceRange(auctions, slotPrices, from, to);
+            ItemPrices batch = new ItemPrices(to - from);
+            for (int slot = from; slot < to; slot++) {
+                if (slotPrices[slot] != PriceEstimator.NO_PRICE) {
+                    batch.add(auctions.itemId(slot), slotPrices[slot]);
+                    averagePrices.add(auctions.itemId(slot), slotPrices[slot]);
+                }
+            }
+            if (!batch.isEmpty()) {
+                sink.accept(batch);
+            }
+        }
+        return averagePrices;
+    }
+
+    private void priceRange(AuctionAccumulator auctions, long[] slotPrices, int from, int to) {
+        if (pricingPool == null || to - from < parallelThreshold) {
+            priceSlots(auctions, slotPrices, from, to);
+        } else {
+            pricingPool.invoke(new PriceTask(auctions, slotPrices, from, to));
+        }
+    }
+
+    private void priceSlots(AuctionAccumulator auctions, long[] slotPrices, int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            slotPrices[slot] = priceEstimator.estimate(
+                auctions.prices(slot), auctions.quantities(slot), auctions.count(slot));
+        }
+    }
+
+    private class PriceTask extends RecursiveAction {
+        private final AuctionAccumulator auctions;
+        private final long[] slotPrices;
+        private final int from;
+        private final int to;
+
+        PriceTask(AuctionAccumulator auctions, long[] slotPrices, int from, int to) {
+            this.auctions = auctions;
+            this.slotPrices = slotPrices;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PRICE_TASK_GRAIN) {
+                priceSlots(auctions, slotPrices, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PriceTask(auctions, slotPrices, from, mid),
+                      new PriceTask(auctions, slotPrices, mid, to));
+        }
+    }
+
     public Map<Integer, Long> calculateAveragePrices(Map<Integer, List<AuctionEntry>> auctions) {
         /* The list of action entries is first sorted by unit price from lowest
         to highest. */
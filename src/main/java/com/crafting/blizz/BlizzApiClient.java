@@ -1,28 +1,276 @@
 package com.crafting.blizz;
 
-import org.springframework.http.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPInputStream;
+
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Downloads auction dumps with the JDK HttpClient. Responses are requested
+ * gzip-compressed and decompressed on the fly into the body handler, so a fetch
+ * only ever holds a small read buffer instead of the whole payload. Unless
+ * disabled, the download and decompression run on their own virtual thread and
+ * hand chunks to the body handler through a bounded {@link ChunkPipe}, so the
+ * handler parses while the rest of the payload is still arriving. With a
+ * {@link SnapshotStore} configured, every changed dump is also archived for replay.
+ */
 @Service
 public class BlizzApiClient {
-    private static final String BASE_URL = "https://eu.api.blizzard.com/data/wow/auctions/commodities";
-    private final RestTemplate rest = new RestTemplate();
-
-    public ResponseEntity<String> fetchCommodities(String accessToken) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(accessToken);
-        HttpEntity<Void> req = new HttpEntity<>(headers);
-        ResponseEntity<String> resp = rest.exchange(
-            BASE_URL + "?namespace=dynamic-eu&locale=en_GB",
-            HttpMethod.GET,
-            req,
-            String.class
-        );
-
-        if (!resp.getStatusCode().is2xxSuccessful() || resp.getBody() == null) {
-            throw new IllegalStateException("Failed to fetch commodities: " + resp.getStatusCode());
-        }
-        return resp;
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(BlizzApiClient.class);
+    static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(10))
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+    private final String apiBaseUrl;
+    private final int pipelineChunks;
+    private final MeterRegistry meterRegistry;
+    private final SnapshotStore snapshotStore;
+
+    // validators of the last dump of each target that was fully processed
+    private final Map<String, Validators> validators = new ConcurrentHashMap<>();
+
+    private record Validators(String lastModified, String etag) {
+    }
+
+    public BlizzApiClient(BlizzConfig blizzConfig, MeterRegistry meterRegistry, SnapshotStore snapshotStore) {
+        this.apiBaseUrl = blizzConfig.getApiBaseUrl();
+        this.pipelineChunks = blizzConfig.getPipelineChunks();
+        this.meterRegistry = meterRegistry;
+        this.snapshotStore = snapshotStore;
+    }
+
+    /**
+     * Consumes the body of an auction response as it arrives.
+     */
+    @FunctionalInterface
+    public interface BodyHandler<T> {
+        T handle(InputStream body) throws IOException;
+    }
+
+    /**
+     * Observes the progress of one fetch.
+     */
+    public interface FetchListener {
+        FetchListener NONE = new FetchListener() { };
+
+        /**
+         * A changed dump is arriving and is about to be handed to the body handler.
+         * @param bytesRead live count of raw (compressed) bytes read so far
+         */
+        default void bodyStarted(LongSupplier bytesRead) {
+        }
+
+        /**
+         * The body has been read off the network; with a separate download thread
+         * this is called from that thread, possibly while the handler still runs.
+         * @param bytesRead raw (compressed) bytes read in total
+         */
+        default void bodyFinished(long bytesRead) {
+        }
+    }
+
+    /**
+     * A changed dump as produced by the body handler, with the validators that
+     * make the next request for its target conditional once it has been processed.
+     * @param result whatever the handler produced
+     * @param target key of the fetched target
+     * @param lastModified Last-Modified of the response, may be null
+     * @param etag ETag of the response, may be null
+     */
+    public record Fetched<T>(T result, String target, String lastModified, String etag) {
+    }
+
+    /**
+     * Same as {@link #fetchAuctions(FetchTarget, String, BodyHandler, FetchListener)}
+     * without a listener.
+     */
+    public <T> Optional<Fetched<T>> fetchAuctions(FetchTarget target, String accessToken, BodyHandler<T> handler) {
+        return fetchAuctions(target, accessToken, handler, FetchListener.NONE);
+    }
+
+    /**
+     * Fetches a target's auction dump and hands the decompressed response body to
+     * the handler as a stream. The request is conditional on the Last-Modified/ETag
+     * of the last dump of that target {@link #markProcessed(Fetched) marked as processed},
+     * and the handler is not called at all if Blizzard answers 304. Until the caller
+     * marks a dump as processed, the next request downloads it again. If a snapshot
+     * directory is configured, the dump is also archived there once the handler completed.
+     * @param target auction house to fetch
+     * @param accessToken OAuth access token
+     * @param handler consumer of the response body
+     * @param listener notified when the body starts and finishes
+     * @return whatever the handler produced with the dump's validators, or empty if the dump is unchanged
+     */
+    public <T> Optional<Fetched<T>> fetchAuctions(FetchTarget target, String accessToken, BodyHandler<T> handler,
+                                         FetchListener listener) {
+        Validators sent = validators.get(target.key());
+        String url = apiBaseUrl.replace("{region}", target.region()) + target.path();
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofMinutes(5))
+            .header("Authorization", "Bearer " + accessToken)
+            .header("Accept-Encoding", "gzip")
+            .GET();
+        if (sent != null && sent.lastModified() != null) {
+            request.header("If-Modified-Since", sent.lastModified());
+        }
+        if (sent != null && sent.etag() != null) {
+            request.header("If-None-Match", sent.etag());
+        }
+
+        DownloadTimer timer = new DownloadTimer(target);
+        try {
+            HttpResponse<InputStream> resp = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            int status = resp.statusCode();
+            if (status == 304) {
+                resp.body().close();
+                timer.record(status, 0);
+                logger.info("{} unchanged since {}, skipping", target.key(), sent != null ? sent.lastModified() : null);
+                Counter.builder("blizzard.fetch.skipped")
+                    .description("Auction fetches skipped because the dump had not changed")
+                    .tag("reason", "not_modified")
+                    .tag("target", target.key())
+                    .register(meterRegistry)
+                    .increment();
+                return Optional.empty();
+            }
+            if (status < 200 || status >= 300) {
+                resp.body().close();
+                timer.record(status, 0);
+                throw new IllegalStateException("Failed to fetch " + target.key() + ": " + status);
+            }
+
+            boolean gzipped = resp.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+            SnapshotStore.Capture snapshot = snapshotStore.begin(
+                target, gzipped, resp.headers().firstValue("Last-Modified").orElse(null));
+            TeeInputStream raw = new TeeInputStream(resp.body(), snapshot != null ? snapshot.sink() : null);
+            T result;
+            try {
+                AtomicBoolean finished = new AtomicBoolean();
+                Runnable downloaded = () -> {
+                    if (finished.compareAndSet(false, true)) {
+                        timer.record(status, raw.getBytesRead());
+                        listener.bodyFinished(raw.getBytesRead());
+                    }
+                };
+                listener.bodyStarted(raw::getBytesRead);
+                try (InputStream decoded = gzipped ? new GZIPInputStream(raw, STREAM_BUFFER_SIZE) : raw;
+                     InputStream body = snapshot != null ? snapshot.digest(decoded) : decoded) {
+                    if (pipelineChunks > 0) {
+                        result = ChunkPipe.handle("download-" + target.key(), body, pipelineChunks,
+                            STREAM_BUFFER_SIZE, handler, downloaded);
+                    } else {
+                        result = handler.handle(body);
+                    }
+                    if (snapshot != null) {
+                        // the handler may stop before trailing bytes, the hash covers the whole dump
+                        body.transferTo(OutputStream.nullOutputStream());
+                    }
+                    // a handler that stops before the end also stops the pipe before it completes
+                    downloaded.run();
+                }
+                if (snapshot != null) {
+                    snapshot.commit();
+                    snapshot = null;
+                }
+            } finally {
+                if (snapshot != null) {
+                    snapshot.abort();
+                }
+            }
+            logger.debug("Read {} bytes of {} ({})", raw.getBytesRead(), target.key(), gzipped ? "gzip" : "identity");
+            return Optional.of(new Fetched<>(result, target.key(),
+                resp.headers().firstValue("Last-Modified").orElse(null),
+                resp.headers().firstValue("ETag").orElse(null)));
+        } catch (IOException e) {
+            timer.recordFailure();
+            throw new UncheckedIOException("Failed to fetch " + target.key(), e);
+        } catch (InterruptedException e) {
+            timer.recordFailure();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching " + target.key(), e);
+        } catch (RuntimeException e) {
+            timer.recordFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Makes the next request for the dump's target conditional on its validators.
+     * Call only once everything derived from the dump is stored, so a dump whose
+     * processing failed is downloaded and processed again on the next fetch.
+     * @param fetched dump returned by a fetch
+     */
+    public void markProcessed(Fetched<?> fetched) {
+        validators.put(fetched.target(), new Validators(fetched.lastModified(), fetched.etag()));
+    }
+
+    /**
+     * Records one download as {@code blizzard.fetch.download} (time from sending the
+     * request until the body was read, tagged with the HTTP status) and
+     * {@code blizzard.fetch.bytes} (raw bytes on the wire). Only the first outcome
+     * counts, so a parse failure after a complete download is not counted twice.
+     */
+    private class DownloadTimer {
+        private final FetchTarget target;
+        private final long startedNanos = System.nanoTime();
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        DownloadTimer(FetchTarget target) {
+            this.target = target;
+        }
+
+        void record(int status, long bytes) {
+            record(String.valueOf(status), bytes);
+        }
+
+        void recordFailure() {
+            record("error", 0);
+        }
+
+        private void record(String status, long bytes) {
+            if (!recorded.compareAndSet(false, true)) {
+                return;
+            }
+            Timer.builder("blizzard.fetch.download")
+                .description("Time from sending an auction request until its body was read")
+                .tag("target", target.key())
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+            if (bytes > 0) {
+                DistributionSummary.builder("blizzard.fetch.bytes")
+                    .description("Raw (compressed) size of downloaded auction dumps")
+                    .baseUnit("bytes")
+                    .tag("target", target.key())
+                    .register(meterRegistry)
+                    .record(bytes);
+            }
+        }
     }
 }
@@ -1,5 +1,8 @@
 package com.crafting.blizz;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.stereotype.Component;
 
 import lombok.Getter;
@@ -14,4 +17,33 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class BlizzConfig {
     private String clientId;
     private String clientSecret;
+    private String tokenUrl = "https://oauth.battle.net/token";
+    // how long before expiry the token is renewed in the background
+    private long tokenRefreshMarginSeconds = 600;
+    // {region} is replaced with the target's region
+    private String apiBaseUrl = "https://{region}.api.blizzard.com";
+    // auction houses to fetch: a region ("eu") for its commodities, "region:connectedRealmId" for a realm
+    private List<String> targets = new ArrayList<>(List.of("eu"));
+    // target whose prices are written to items.current_price and the rollups
+    private String primaryTarget = "eu-commodities";
+    // fetches allowed to run at once against one region
+    private int maxConcurrentPerRegion = 4;
+    // API requests per second allowed against one region
+    private double requestsPerSecond = 10;
+    // 64 KiB chunks buffered between the download and parse threads, 0 = parse on the download thread
+    private int pipelineChunks = 16;
+    // priced items per database write while a fetch is persisted
+    private int persistBatchSize = 2000;
+    // batches allowed to wait for the database before pricing blocks
+    private int persistQueueBatches = 4;
+    // directory every changed dump is archived to as <sha256>.json.gz, blank = off
+    private String snapshotDirectory = "";
+    // snapshot file or directory replayed once at startup instead of fetching, blank = off
+    private String replayPath = "";
+    // "selection" (quickselect) or "sort" (full sort per item)
+    private String priceEstimator = "selection";
+    // threads used to price items in parallel, 0 = one per core
+    private int priceParallelism = 0;
+    // item count below which pricing stays on the calling thread
+    private int priceParallelThreshold = 512;
 }
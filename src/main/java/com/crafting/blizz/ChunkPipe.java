@@ -0,0 +1,188 @@
+package com.crafting.blizz;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded hand-off of a byte stream from a download thread to a parsing thread.
+ * The producer {@link #pump(InputStream) pumps} the source into a queue of
+ * fixed-size chunks and blocks while the queue is full, so at most
+ * capacity + 2 chunks are ever held no matter how far the parser falls behind.
+ * Consumed chunk buffers are handed back to the producer for reuse.
+ */
+class ChunkPipe {
+    private static final Chunk END = new Chunk(new byte[0], -1);
+
+    private record Chunk(byte[] data, int length) {
+    }
+
+    private final int chunkSize;
+    private final BlockingQueue<Chunk> chunks;
+    private final BlockingQueue<byte[]> freeBuffers;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    /**
+     * @param capacity chunks that may wait between the two threads
+     * @param chunkSize bytes per chunk
+     */
+    ChunkPipe(int capacity, int chunkSize) {
+        this.chunkSize = chunkSize;
+        this.chunks = new ArrayBlockingQueue<>(capacity);
+        this.freeBuffers = new ArrayBlockingQueue<>(capacity + 2);
+    }
+
+    /**
+     * Runs the handler on the calling thread over a pipe that a virtual thread fills
+     * from the source, and waits for that thread before returning, so the source
+     * can be closed right after.
+     * @param threadName name of the producer thread
+     * @param source stream the producer reads
+     * @param capacity chunks that may wait between the two threads
+     * @param chunkSize bytes per chunk
+     * @param handler consumer of the piped bytes
+     * @param completed run on the producer thread once the whole source was copied
+     * @return whatever the handler produced
+     */
+    static <T> T handle(String threadName, InputStream source, int capacity, int chunkSize,
+                        BlizzApiClient.BodyHandler<T> handler, Runnable completed)
+            throws IOException, InterruptedException {
+        ChunkPipe pipe = new ChunkPipe(capacity, chunkSize);
+        Thread producer = Thread.ofVirtual().name(threadName).start(() -> {
+            if (pipe.pump(source)) {
+                completed.run();
+            }
+        });
+        try (InputStream piped = pipe.reader()) {
+            return handler.handle(piped);
+        } finally {
+            pipe.close();
+            producer.join();
+        }
+    }
+
+    /**
+     * Copies the source into the pipe until it ends, fails or the reader closes
+     * the pipe. Runs on the producer thread.
+     * @return true if the whole source was copied
+     */
+    boolean pump(InputStream source) {
+        boolean complete = false;
+        try {
+            // runs until the source ends or an offer finds the reader gone
+            while (true) {
+                byte[] buffer = freeBuffers.poll();
+                if (buffer == null) {
+                    buffer = new byte[chunkSize];
+                }
+                int length = source.readNBytes(buffer, 0, chunkSize);
+                if (length == 0) {
+                    complete = true;
+                    break;
+                }
+                if (!offer(new Chunk(buffer, length))) {
+                    break;
+                }
+            }
+            offer(END);
+        } catch (IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(new InterruptedIOException("Download interrupted"));
+        }
+        return complete && failure == null;
+    }
+
+    // the queued data is useless once the source failed, so make room for the end marker
+    private void fail(IOException e) {
+        failure = e;
+        chunks.clear();
+        chunks.offer(END);
+    }
+
+    // blocks while the queue is full, gives up once the reader is gone
+    private boolean offer(Chunk chunk) throws InterruptedException {
+        while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+            if (closed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops the producer and drops anything still queued.
+     */
+    void close() {
+        closed = true;
+        chunks.clear();
+    }
+
+    /**
+     * @return stream over the pumped bytes; failures of the source surface on read
+     */
+    InputStream reader() {
+        return new InputStream() {
+            private final byte[] single = new byte[1];
+            private Chunk current;
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                if (current == END) {
+                    return -1;
+                }
+                if (current == null || position == current.length()) {
+                    if (!next()) {
+                        return -1;
+                    }
+                }
+                int n = Math.min(length, current.length() - position);
+                System.arraycopy(current.data(), position, buffer, offset, n);
+                position += n;
+                return n;
+            }
+
+            private boolean next() throws IOException {
+                if (current == END) {
+                    return false;
+                }
+                if (current != null) {
+                    freeBuffers.offer(current.data());
+                }
+                try {
+                    current = chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for data", e);
+                }
+                position = 0;
+                if (current == END) {
+                    if (failure != null) {
+                        throw new IOException("Download failed", failure);
+                    }
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void close() {
+                ChunkPipe.this.close();
+            }
+        };
+    }
+}
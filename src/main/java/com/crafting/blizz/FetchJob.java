@@ -0,0 +1,237 @@
+package com.crafting.blizz;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * One run of the fetch pipeline over all configured targets, as reported by the
+ * job status endpoint. Every target goes through the stages download, parse,
+ * aggregate and persist; the time spent in each stage and the bytes and auctions
+ * seen so far are updated live while the job runs.
+ */
+@Getter
+public class FetchJob {
+    public enum State { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    public enum Stage { PENDING, DOWNLOAD, PARSE, AGGREGATE, PERSIST, DONE, NOT_MODIFIED, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    // "manual", "scheduled" or "replay"
+    private final String trigger;
+    private final OffsetDateTime submittedAt = OffsetDateTime.now();
+    private volatile State state = State.QUEUED;
+    private volatile OffsetDateTime startedAt;
+    private volatile OffsetDateTime finishedAt;
+    private volatile String error;
+    private final Map<String, TargetProgress> targets = new LinkedHashMap<>();
+
+    public FetchJob(String trigger, List<FetchTarget> targets) {
+        this.trigger = trigger;
+        for (FetchTarget target : targets) {
+            this.targets.put(target.key(), new TargetProgress(target.key()));
+        }
+    }
+
+    /**
+     * A job that replays archived dumps instead of fetching, one progress entry per snapshot.
+     */
+    static FetchJob replay(List<SnapshotStore.Snapshot> snapshots) {
+        FetchJob job = new FetchJob("replay", List.of());
+        for (SnapshotStore.Snapshot snapshot : snapshots) {
+            job.targets.put(snapshot.label(), new TargetProgress(snapshot.label()));
+        }
+        return job;
+    }
+
+    public Collection<TargetProgress> getTargets() {
+        return targets.values();
+    }
+
+    TargetProgress target(String key) {
+        return targets.get(key);
+    }
+
+    public boolean isFinished() {
+        return state == State.SUCCEEDED || state == State.FAILED;
+    }
+
+    /**
+     * @return targets that have left the pending stage
+     */
+    public int getTargetsStarted() {
+        return (int) targets.values().stream().filter(t -> t.getStage() != Stage.PENDING).count();
+    }
+
+    /**
+     * @return targets that are done, unchanged or failed
+     */
+    public int getTargetsFinished() {
+        return (int) targets.values().stream().filter(TargetProgress::isFinished).count();
+    }
+
+    public long getBytesRead() {
+        return targets.values().stream().mapToLong(TargetProgress::getBytesRead).sum();
+    }
+
+    public long getAuctionsSeen() {
+        return targets.values().stream().mapToLong(TargetProgress::getAuctionsSeen).sum();
+    }
+
+    public long getAuctionsMatched() {
+        return targets.values().stream().mapToLong(TargetProgress::getAuctionsMatched).sum();
+    }
+
+    public long getItemsPriced() {
+        return targets.values().stream().mapToLong(TargetProgress::getItemsPriced).sum();
+    }
+
+    void running() {
+        startedAt = OffsetDateTime.now();
+        state = State.RUNNING;
+    }
+
+    void succeeded() {
+        finishedAt = OffsetDateTime.now();
+        state = State.SUCCEEDED;
+    }
+
+    void failed(Exception e) {
+        finishedAt = OffsetDateTime.now();
+        error = e.toString();
+        state = State.FAILED;
+    }
+
+    /**
+     * Progress of one target within a job. Written by the threads fetching the
+     * target, read by status requests. The stages of a target overlap: parsing
+     * starts as soon as the first bytes arrive, and the first price batches are
+     * persisted while the rest are still being priced. The reported stage is the
+     * latest one that started.
+     */
+    @Getter
+    public static class TargetProgress implements BlizzApiClient.FetchListener {
+        private final String target;
+        private volatile Stage stage = Stage.PENDING;
+        private volatile long bytesRead;
+        private volatile long auctionsSeen;
+        private volatile long auctionsMatched;
+        private volatile int itemsPriced;
+        private volatile int rowsUpdated;
+        private volatile int rowsMissing;
+        private volatile String error;
+        @Getter(AccessLevel.NONE)
+        private volatile LongSupplier liveBytes;
+        @Getter(AccessLevel.NONE)
+        private final EnumMap<Stage, Long> startedNanos = new EnumMap<>(Stage.class);
+        private final EnumMap<Stage, Long> stageMillis = new EnumMap<>(Stage.class);
+
+        TargetProgress(String target) {
+            this.target = target;
+        }
+
+        public long getBytesRead() {
+            LongSupplier live = liveBytes;
+            return live != null ? live.getAsLong() : bytesRead;
+        }
+
+        /**
+         * @return milliseconds spent per stage, including the time so far in stages still running
+         */
+        public synchronized Map<Stage, Long> getStageMillis() {
+            EnumMap<Stage, Long> millis = new EnumMap<>(stageMillis);
+            long now = System.nanoTime();
+            startedNanos.forEach((stage, started) -> millis.putIfAbsent(stage, (now - started) / 1_000_000));
+            return millis;
+        }
+
+        public boolean isFinished() {
+            return stage == Stage.DONE || stage == Stage.NOT_MODIFIED || stage == Stage.FAILED;
+        }
+
+        /**
+         * Marks a stage as started; a stage only starts once.
+         */
+        synchronized void start(Stage next) {
+            if (isFinished() || startedNanos.containsKey(next)) {
+                return;
+            }
+            startedNanos.put(next, System.nanoTime());
+            stage = next;
+        }
+
+        /**
+         * Marks a started stage as ended.
+         */
+        synchronized void end(Stage ended) {
+            Long started = startedNanos.get(ended);
+            if (started != null) {
+                stageMillis.putIfAbsent(ended, (System.nanoTime() - started) / 1_000_000);
+            }
+        }
+
+        // ends whatever is still running
+        private synchronized void finish(Stage outcome) {
+            for (Stage running : startedNanos.keySet()) {
+                end(running);
+            }
+            stage = outcome;
+        }
+
+        @Override
+        public void bodyStarted(LongSupplier bytesRead) {
+            liveBytes = bytesRead;
+            start(Stage.PARSE);
+        }
+
+        @Override
+        public void bodyFinished(long bytesRead) {
+            this.bytesRead = bytesRead;
+            liveBytes = null;
+            end(Stage.DOWNLOAD);
+        }
+
+        void collected(AuctionAccumulator auctions) {
+            auctionsSeen = auctions.auctionsSeen();
+            auctionsMatched = auctions.auctionCount();
+        }
+
+        void persisted(int rowsUpdated, int rowsMissing) {
+            this.rowsUpdated = rowsUpdated;
+            this.rowsMissing = rowsMissing;
+        }
+
+        void done(int itemsPriced) {
+            this.itemsPriced = itemsPriced;
+            keepBytesRead();
+            finish(Stage.DONE);
+        }
+
+        void notModified() {
+            finish(Stage.NOT_MODIFIED);
+        }
+
+        void failed(Exception e) {
+            keepBytesRead();
+            error = e.toString();
+            finish(Stage.FAILED);
+        }
+
+        // freeze the live count, the stream behind it goes away with the fetch
+        private void keepBytesRead() {
+            LongSupplier live = liveBytes;
+            if (live != null) {
+                bytesRead = live.getAsLong();
+                liveBytes = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.crafting.blizz;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes what a fetch did once it is over, taken from the job's progress:
+ * <ul>
+ *   <li>{@code blizzard.fetch.stage} timer per target and stage (parse, aggregate, persist)</li>
+ *   <li>{@code blizzard.fetch.auctions} counter of auctions seen and matched</li>
+ *   <li>{@code blizzard.fetch.items.priced} counter</li>
+ *   <li>{@code blizzard.fetch.rows} counter of price rows updated and items missing from the DB</li>
+ *   <li>{@code blizzard.fetch.targets} counter per target and outcome</li>
+ *   <li>{@code blizzard.fetch.job} timer per job outcome</li>
+ * </ul>
+ * Download time and size are recorded by {@link BlizzApiClient}, token requests
+ * by {@link TokenService}.
+ */
+@Component
+public class FetchMetrics {
+    private static final FetchJob.Stage[] TIMED_STAGES = {
+        FetchJob.Stage.PARSE, FetchJob.Stage.AGGREGATE, FetchJob.Stage.PERSIST
+    };
+
+    private final MeterRegistry meterRegistry;
+
+    public FetchMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records a target once it is done, unchanged or failed.
+     */
+    void targetFinished(FetchJob.TargetProgress progress) {
+        String target = progress.getTarget();
+        Counter.builder("blizzard.fetch.targets")
+            .description("Fetched targets by outcome")
+            .tag("target", target)
+            .tag("result", progress.getStage().name().toLowerCase(Locale.ROOT))
+            .register(meterRegistry)
+            .increment();
+        if (progress.getStage() != FetchJob.Stage.DONE) {
+            return;
+        }
+        Map<FetchJob.Stage, Long> millis = progress.getStageMillis();
+        for (FetchJob.Stage stage : TIMED_STAGES) {
+            Long spent = millis.get(stage);
+            if (spent != null) {
+                Timer.builder("blizzard.fetch.stage")
+                    .description("Time spent in each stage of a fetch; stages overlap")
+                    .tag("target", target)
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofMinutes(5))
+                    .register(meterRegistry)
+                    .record(spent, TimeUnit.MILLISECONDS);
+            }
+        }
+        count("blizzard.fetch.auctions", "Auctions read from dumps", target, "seen", progress.getAuctionsSeen());
+        count("blizzard.fetch.auctions", "Auctions read from dumps", target, "matched", progress.getAuctionsMatched());
+        Counter.builder("blizzard.fetch.items.priced")
+            .description("Items priced from dumps")
+            .tag("target", target)
+            .register(meterRegistry)
+            .increment(progress.getItemsPriced());
+        count("blizzard.fetch.rows", "Price rows written", target, "updated", progress.getRowsUpdated());
+        count("blizzard.fetch.rows", "Price rows written", target, "missing", progress.getRowsMissing());
+    }
+
+    /**
+     * Records a job once it succeeded or failed.
+     */
+    void jobFinished(FetchJob job) {
+        if (job.getStartedAt() == null || job.getFinishedAt() == null) {
+            return;
+        }
+        Timer.builder("blizzard.fetch.job")
+            .description("Duration of fetch jobs over all targets")
+            .tag("result", job.getState().name().toLowerCase(Locale.ROOT))
+            .register(meterRegistry)
+            .record(Duration.between(job.getStartedAt(), job.getFinishedAt()));
+    }
+
+    private void count(String name, String description, String target, String result, long amount) {
+        Counter.builder(name)
+            .description(description)
+            .tag("target", target)
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment(amount);
+    }
+}
@@ -0,0 +1,142 @@
+package com.crafting.blizz;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs the fetches of many auction houses at once, one virtual thread per target.
+ * Every target has its own lock so a slow realm never blocks the others, while
+ * each region gets a concurrency cap and a request budget to stay within the API
+ * rate limits.
+ */
+@Component
+public class FetchScheduler {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(FetchScheduler.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Semaphore> regionSlots = new ConcurrentHashMap<>();
+    private final Map<String, RequestBudget> regionBudgets = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> targetLocks = new ConcurrentHashMap<>();
+    private final Map<String, FetchTargetStatus> statuses = new ConcurrentHashMap<>();
+    private final int maxConcurrentPerRegion;
+    private final double requestsPerSecond;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Outcome of fetching one target.
+     * @param modified false if the dump had not changed since the last fetch
+     * @param itemsPriced number of items priced from the dump
+     */
+    public record TargetResult(boolean modified, int itemsPriced) {
+        public static TargetResult notModified() {
+            return new TargetResult(false, 0);
+        }
+    }
+
+    @FunctionalInterface
+    public interface TargetTask {
+        TargetResult run(FetchTarget target) throws Exception;
+    }
+
+    public FetchScheduler(BlizzConfig blizzConfig, MeterRegistry meterRegistry) {
+        this.maxConcurrentPerRegion = Math.max(1, blizzConfig.getMaxConcurrentPerRegion());
+        this.requestsPerSecond = blizzConfig.getRequestsPerSecond();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Fetches all targets concurrently and waits for them to finish. Targets still
+     * running from an earlier trigger are skipped.
+     * @return number of targets that actually ran
+     */
+    public int runAll(List<FetchTarget> targets, TargetTask task) {
+        List<Future<Boolean>> futures = new ArrayList<>(targets.size());
+        for (FetchTarget target : targets) {
+            futures.add(executor.submit(() -> runTarget(target, task)));
+        }
+        int started = 0;
+        for (Future<Boolean> future : futures) {
+            try {
+                if (future.get()) started++;
+            } catch (ExecutionException e) {
+                logger.error("Fetch task crashed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return started;
+    }
+
+    private boolean runTarget(FetchTarget target, TargetTask task) throws InterruptedException {
+        ReentrantLock lock = targetLocks.computeIfAbsent(target.key(), k -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            logger.warn("Fetch of {} already in progress, skipping", target.key());
+            return false;
+        }
+        FetchTargetStatus status = statusOf(target);
+        Semaphore slots = regionSlots.computeIfAbsent(target.region(), r -> new Semaphore(maxConcurrentPerRegion));
+        try {
+            status.waiting();
+            slots.acquire();
+            try {
+                regionBudgets.computeIfAbsent(target.region(), r -> new RequestBudget(requestsPerSecond)).acquire();
+                status.running();
+                TargetResult result = task.run(target);
+                status.finished(result);
+                logger.info("Fetch of {} finished: {}", target.key(), result);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                status.failed(e);
+                logger.error("Fetch of {} failed", target.key(), e);
+            } finally {
+                slots.release();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private FetchTargetStatus statusOf(FetchTarget target) {
+        return statuses.computeIfAbsent(target.key(), key -> {
+            FetchTargetStatus status = new FetchTargetStatus(key);
+            // alert when this falls too far behind the clock
+            Gauge.builder("fetch.last.success", status, FetchScheduler::lastSuccessEpochSeconds)
+                .description("Epoch second of the last successful fetch of a target, 0 if none yet")
+                .baseUnit("seconds")
+                .tag("target", key)
+                .register(meterRegistry);
+            return status;
+        });
+    }
+
+    private static double lastSuccessEpochSeconds(FetchTargetStatus status) {
+        return status.getLastSuccessAt() == null ? 0 : status.getLastSuccessAt().toEpochSecond();
+    }
+
+    public Collection<FetchTargetStatus> getStatuses() {
+        return statuses.values();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,48 @@
+package com.crafting.blizz;
+
+import java.util.Set;
+
+/**
+ * One auction house to fetch: the region-wide commodities market, or the auction
+ * house of a single connected realm.
+ * @param region API region, one of eu, us, kr, tw
+ * @param connectedRealmId connected realm id, or null for commodities
+ */
+public record FetchTarget(String region, Integer connectedRealmId) {
+    private static final Set<String> REGIONS = Set.of("eu", "us", "kr", "tw");
+
+    public FetchTarget {
+        if (!REGIONS.contains(region)) {
+            throw new IllegalArgumentException("Unknown region: " + region);
+        }
+    }
+
+    /**
+     * Parses a target spec as used in blizzard.targets: "eu" or "eu:1305".
+     */
+    public static FetchTarget parse(String spec) {
+        String trimmed = spec.trim().toLowerCase();
+        int colon = trimmed.indexOf(':');
+        if (colon < 0) {
+            return new FetchTarget(trimmed, null);
+        }
+        return new FetchTarget(trimmed.substring(0, colon), Integer.valueOf(trimmed.substring(colon + 1)));
+    }
+
+    public boolean isCommodities() {
+        return connectedRealmId == null;
+    }
+
+    /** Stable name of the target, also stored as the price source. */
+    public String key() {
+        return isCommodities() ? region + "-commodities" : region + "-realm-" + connectedRealmId;
+    }
+
+    /** API path and query for this target's auction dump. */
+    public String path() {
+        String resource = isCommodities()
+            ? "/data/wow/auctions/commodities"
+            : "/data/wow/connected-realm/" + connectedRealmId + "/auctions";
+        return resource + "?namespace=dynamic-" + region;
+    }
+}
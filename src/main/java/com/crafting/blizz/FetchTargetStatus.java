@@ -0,0 +1,52 @@
+package com.crafting.blizz;
+
+import java.time.OffsetDateTime;
+
+import lombok.Getter;
+
+/**
+ * Last known state of one fetch target, shown by the fetch status endpoint.
+ */
+@Getter
+public class FetchTargetStatus {
+    public enum State { IDLE, WAITING, RUNNING, SUCCEEDED, NOT_MODIFIED, FAILED }
+
+    private final String target;
+    private volatile State state = State.IDLE;
+    private volatile OffsetDateTime lastStartedAt;
+    private volatile OffsetDateTime lastFinishedAt;
+    private volatile OffsetDateTime lastSuccessAt;
+    private volatile int lastItemsPriced;
+    private volatile String lastError;
+
+    public FetchTargetStatus(String target) {
+        this.target = target;
+    }
+
+    void waiting() {
+        state = State.WAITING;
+    }
+
+    void running() {
+        state = State.RUNNING;
+        lastStartedAt = OffsetDateTime.now();
+    }
+
+    void finished(FetchScheduler.TargetResult result) {
+        lastFinishedAt = OffsetDateTime.now();
+        lastSuccessAt = lastFinishedAt;
+        lastError = null;
+        if (result.modified()) {
+            lastItemsPriced = result.itemsPriced();
+            state = State.SUCCEEDED;
+        } else {
+            state = State.NOT_MODIFIED;
+        }
+    }
+
+    void failed(Exception e) {
+        lastFinishedAt = OffsetDateTime.now();
+        lastError = e.toString();
+        state = State.FAILED;
+    }
+}
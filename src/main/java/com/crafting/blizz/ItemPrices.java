@@ -0,0 +1,49 @@
+package com.crafting.blizz;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computed prices for a fetch cycle, held as parallel primitive arrays of item IDs
+ * and prices in copper.
+ */
+public class ItemPrices {
+    private final int[] itemIds;
+    private final long[] prices;
+    private int size;
+
+    public ItemPrices(int capacity) {
+        this.itemIds = new int[capacity];
+        this.prices = new long[capacity];
+    }
+
+    public void add(int itemId, long price) {
+        itemIds[size] = itemId;
+        prices[size] = price;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int itemId(int index) {
+        return itemIds[index];
+    }
+
+    public long price(int index) {
+        return prices[index];
+    }
+
+    public Map<Integer, Long> toMap() {
+        Map<Integer, Long> map = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put(itemIds[i], prices[i]);
+        }
+        return map;
+    }
+}
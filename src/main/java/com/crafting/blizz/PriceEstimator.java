@@ -0,0 +1,20 @@
+package com.crafting.blizz;
+
+/**
+ * Turns one item's auctions into a single price. Implementations receive the
+ * item's primitive columns from {@link AuctionAccumulator} and may reorder them
+ * in place, but must keep prices and quantities paired.
+ */
+public interface PriceEstimator {
+
+    /** Returned when the auctions carry no quantity to weigh a price with. */
+    long NO_PRICE = Long.MIN_VALUE;
+
+    /**
+     * @param prices unit prices in copper
+     * @param quantities quantities, index-aligned with prices
+     * @param count number of valid entries in both columns
+     * @return estimated price in copper, or {@link #NO_PRICE}
+     */
+    long estimate(long[] prices, int[] quantities, int count);
+}
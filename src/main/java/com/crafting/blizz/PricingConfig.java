@@ -0,0 +1,18 @@
+package com.crafting.blizz;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PricingConfig {
+
+    @Bean
+    public PriceEstimator priceEstimator(BlizzConfig blizzConfig) {
+        return switch (blizzConfig.getPriceEstimator()) {
+            case "sort" -> new SortingPriceEstimator();
+            case "selection" -> new SelectionPriceEstimator();
+            default -> throw new IllegalStateException(
+                "Unknown blizzard.priceEstimator: " + blizzConfig.getPriceEstimator());
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.crafting.blizz;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket limiting how many API requests are sent per second. Callers that
+ * run out of budget sleep until their permit is due, which is cheap on virtual
+ * threads.
+ */
+class RequestBudget {
+    private final double permitsPerNano;
+    private final double capacity;
+    private double available;
+    private long lastRefill;
+
+    RequestBudget(double permitsPerSecond) {
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, permitsPerSecond);
+        this.available = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+        available -= 1;
+        return available >= 0 ? 0 : (long) (-available / permitsPerNano);
+    }
+}
@@ -0,0 +1,86 @@
+package com.crafting.blizz;
+
+/**
+ * Same result as {@link SortingPriceEstimator} in expected O(n): quickselect finds
+ * the cheapest 20% without ordering the rest, then a second select inside that
+ * range finds the half whose quantities are doubled. Entries are ranked by
+ * (unit price, arrival index), which is exactly the order a stable sort produces,
+ * so ties between auctions with different quantities resolve the same way.
+ * The columns are left untouched.
+ */
+public class SelectionPriceEstimator implements PriceEstimator {
+
+    @Override
+    public long estimate(long[] prices, int[] quantities, int count) {
+        if (count == 0) return NO_PRICE;
+        int selectedCount = Math.max(1, (int) Math.ceil(count * 0.2));
+        int toDouble = selectedCount / 2; // First half will be doubled
+
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        select(order, prices, 0, count, selectedCount);
+        select(order, prices, 0, selectedCount, toDouble);
+
+        long totalQty = 0;
+        long weightedSum = 0;
+        for (int i = 0; i < selectedCount; i++) {
+            int entry = order[i];
+            long qty = quantities[entry];
+            if (i < toDouble) {
+                qty *= 2;
+            }
+            totalQty += qty;
+            weightedSum += prices[entry] * qty;
+        }
+        return totalQty > 0 ? weightedSum / totalQty : NO_PRICE;
+    }
+
+    /**
+     * Rearranges order[from, to) so that order[from, k) holds its k - from
+     * smallest entries, in no particular order.
+     */
+    private static void select(int[] order, long[] prices, int from, int to, int k) {
+        if (k <= from || k >= to) return;
+        int lo = from;
+        int hi = to - 1;
+        while (lo < hi) {
+            int pivot = partition(order, prices, lo, hi);
+            if (pivot == k) return;
+            if (pivot < k) {
+                lo = pivot + 1;
+            } else {
+                hi = pivot - 1;
+            }
+        }
+    }
+
+    private static int partition(int[] order, long[] prices, int lo, int hi) {
+        // median of three guards against already sorted dumps
+        int mid = (lo + hi) >>> 1;
+        if (less(order[mid], order[lo], prices)) swap(order, lo, mid);
+        if (less(order[hi], order[lo], prices)) swap(order, lo, hi);
+        if (less(order[mid], order[hi], prices)) swap(order, mid, hi);
+        int pivot = order[hi];
+
+        int store = lo;
+        for (int i = lo; i < hi; i++) {
+            if (less(order[i], pivot, prices)) {
+                swap(order, i, store++);
+            }
+        }
+        swap(order, store, hi);
+        return store;
+    }
+
+    private static boolean less(int a, int b, long[] prices) {
+        return prices[a] < prices[b] || (prices[a] == prices[b] && a < b);
+    }
+
+    private static void swap(int[] order, int i, int j) {
+        int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+    }
+}
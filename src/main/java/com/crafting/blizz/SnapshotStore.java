@@ -0,0 +1,263 @@
+package com.crafting.blizz;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Archive of raw auction dumps for offline replay. Every dump is stored gzip-compressed
+ * as {@code <sha256>.json.gz}, named after the SHA-256 of its decompressed JSON, so the
+ * same dump is only kept once however often it is downloaded. A tab-separated
+ * {@value #INDEX_FILE} next to the snapshots records the target and the time each
+ * dump was generated, which replays use as the price timestamp.
+ */
+@Component
+public class SnapshotStore {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SnapshotStore.class);
+    static final String SUFFIX = ".json.gz";
+    static final String INDEX_FILE = "snapshots.tsv";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    private final String snapshotDirectory;
+    private final String primaryTarget;
+
+    /**
+     * One archived dump.
+     * @param file the compressed snapshot
+     * @param sha256 hash of the decompressed JSON
+     * @param target key of the target the dump came from
+     * @param recordedAt when Blizzard generated the dump, or when it was archived
+     */
+    public record Snapshot(Path file, String sha256, String target, OffsetDateTime recordedAt) {
+        /** Short name for logs and job progress: target and hash prefix. */
+        public String label() {
+            return target + "/" + sha256.substring(0, Math.min(12, sha256.length()));
+        }
+    }
+
+    private record IndexEntry(String target, OffsetDateTime recordedAt) {
+    }
+
+    public SnapshotStore(BlizzConfig blizzConfig) {
+        this.snapshotDirectory = blizzConfig.getSnapshotDirectory();
+        this.primaryTarget = blizzConfig.getPrimaryTarget();
+    }
+
+    public boolean isEnabled() {
+        return snapshotDirectory != null && !snapshotDirectory.isBlank();
+    }
+
+    /**
+     * Resolves an archived dump by hash, without leaving the snapshot directory.
+     * @param sha256 hash of the dump, or null for the whole directory
+     * @return the snapshot file, or the snapshot directory
+     * @throws IllegalStateException if no snapshot directory is configured
+     * @throws IllegalArgumentException if the hash is malformed
+     */
+    public Path locate(String sha256) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("No snapshot directory configured");
+        }
+        Path dir = Paths.get(snapshotDirectory);
+        if (sha256 == null || sha256.isBlank()) {
+            return dir;
+        }
+        if (!SHA256.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256 hash: " + sha256);
+        }
+        return dir.resolve(sha256 + SUFFIX);
+    }
+
+    /**
+     * Starts archiving a dump that is about to be read.
+     * @param target target the dump belongs to
+     * @param gzipped whether the raw payload is already gzip-compressed
+     * @param lastModified Last-Modified header of the response, may be null
+     * @return the capture, or null if no snapshot directory is configured
+     */
+    Capture begin(FetchTarget target, boolean gzipped, String lastModified) throws IOException {
+        if (!isEnabled()) {
+            return null;
+        }
+        Path dir = Paths.get(snapshotDirectory);
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, target.key() + "-", ".part");
+        return new Capture(dir, temp, gzipped, target.key(), parseLastModified(lastModified));
+    }
+
+    /**
+     * A dump being written to a temporary file. The raw payload goes through
+     * {@link #sink()}, compressed if it is not already, and the decompressed JSON
+     * through {@link #digest(InputStream)}; {@link #commit()} then files it under its hash.
+     */
+    final class Capture {
+        private final Path dir;
+        private final Path temp;
+        private final OutputStream sink;
+        private final MessageDigest digest;
+        private final String target;
+        private final OffsetDateTime recordedAt;
+
+        private Capture(Path dir, Path temp, boolean gzipped, String target, OffsetDateTime recordedAt)
+                throws IOException {
+            this.dir = dir;
+            this.temp = temp;
+            this.target = target;
+            this.recordedAt = recordedAt;
+            OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE);
+            this.sink = gzipped ? file : new GZIPOutputStream(file, BUFFER_SIZE);
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /** Receives the raw payload; closed by whoever reads the response. */
+        OutputStream sink() {
+            return sink;
+        }
+
+        /** Hashes the decompressed dump as it is read. */
+        InputStream digest(InputStream decompressed) {
+            return new DigestInputStream(decompressed, digest);
+        }
+
+        /**
+         * Moves the complete dump into place, or drops it if that content is
+         * already archived. Call after the sink was closed and the JSON read to its end.
+         */
+        Snapshot commit() throws IOException {
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            Path file = dir.resolve(sha256 + SUFFIX);
+            if (Files.exists(file)) {
+                Files.delete(temp);
+                logger.debug("Snapshot {} of {} already archived", sha256, target);
+                return new Snapshot(file, sha256, target, recordedAt);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            appendIndex(dir, sha256, target, recordedAt);
+            logger.info("Archived {} dump as {}", target, file);
+            return new Snapshot(file, sha256, target, recordedAt);
+        }
+
+        /** Discards a partial dump. */
+        void abort() {
+            try {
+                sink.close();
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                logger.warn("Could not remove partial snapshot {}", temp, e);
+            }
+        }
+    }
+
+    private static synchronized void appendIndex(Path dir, String sha256, String target, OffsetDateTime recordedAt)
+            throws IOException {
+        String line = sha256 + "\t" + target + "\t" + recordedAt + "\n";
+        Files.writeString(dir.resolve(INDEX_FILE), line, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Lists the snapshots to replay. Target and timestamp come from the index when
+     * the snapshot is listed there; otherwise the primary target and the file's
+     * modification time are assumed.
+     * @param fileOrDirectory one snapshot, or a directory whose snapshots are all replayed
+     * @return snapshots, oldest first
+     */
+    public List<Snapshot> find(Path fileOrDirectory) throws IOException {
+        List<Path> files;
+        if (Files.isDirectory(fileOrDirectory)) {
+            try (Stream<Path> listed = Files.list(fileOrDirectory)) {
+                files = listed.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).toList();
+            }
+        } else if (Files.isRegularFile(fileOrDirectory)) {
+            files = List.of(fileOrDirectory);
+        } else {
+            throw new IOException("No snapshot at " + fileOrDirectory);
+        }
+        Map<Path, Map<String, IndexEntry>> indexes = new HashMap<>();
+        return files.stream()
+            .map(file -> {
+                String name = file.getFileName().toString();
+                String sha256 = name.endsWith(SUFFIX) ? name.substring(0, name.length() - SUFFIX.length()) : name;
+                Path dir = file.toAbsolutePath().getParent();
+                IndexEntry entry = indexes.computeIfAbsent(dir, SnapshotStore::readIndex).get(sha256);
+                return entry != null
+                    ? new Snapshot(file, sha256, entry.target(), entry.recordedAt())
+                    : new Snapshot(file, sha256, primaryTarget, modifiedAt(file));
+            })
+            .sorted(Comparator.comparing(Snapshot::recordedAt))
+            .toList();
+    }
+
+    private static Map<String, IndexEntry> readIndex(Path dir) {
+        Map<String, IndexEntry> entries = new HashMap<>();
+        Path index = dir.resolve(INDEX_FILE);
+        if (!Files.isRegularFile(index)) {
+            return entries;
+        }
+        try {
+            for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t");
+                if (fields.length < 3) {
+                    continue;
+                }
+                try {
+                    entries.put(fields[0], new IndexEntry(fields[1], OffsetDateTime.parse(fields[2])));
+                } catch (DateTimeParseException e) {
+                    logger.warn("Skipping malformed snapshot index line: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read snapshot index {}", index, e);
+        }
+        return entries;
+    }
+
+    private static OffsetDateTime modifiedAt(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().atOffset(ZoneOffset.UTC);
+        } catch (IOException e) {
+            return OffsetDateTime.now(ZoneOffset.UTC);
+        }
+    }
+
+    private static OffsetDateTime parseLastModified(String lastModified) {
+        if (lastModified != null) {
+            try {
+                return ZonedDateTime.parse(lastModified, DateTimeFormatter.RFC_1123_DATE_TIME).toOffsetDateTime();
+            } catch (DateTimeParseException e) {
+                logger.debug("Unparseable Last-Modified {}, using the current time", lastModified);
+            }
+        }
+        return OffsetDateTime.now(ZoneOffset.UTC);
+    }
+}
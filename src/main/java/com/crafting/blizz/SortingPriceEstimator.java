@@ -0,0 +1,69 @@
+package com.crafting.blizz;
+
+/**
+ * Reference estimator: sorts all auctions by unit price (stable, so ties keep
+ * arrival order) and takes the quantity-weighted price of the cheapest 20%,
+ * rounded up, with the quantities of the first half of those doubled.
+ */
+public class SortingPriceEstimator implements PriceEstimator {
+
+    @Override
+    public long estimate(long[] prices, int[] quantities, int count) {
+        if (count == 0) return NO_PRICE;
+        mergeSortByPrice(prices, quantities, 0, count, new long[count], new int[count]);
+
+        int selectedCount = Math.max(1, (int) Math.ceil(count * 0.2));
+        int toDouble = selectedCount / 2; // First half will be doubled
+
+        long totalQty = 0;
+        long weightedSum = 0;
+        for (int i = 0; i < selectedCount; i++) {
+            long qty = quantities[i];
+            if (i < toDouble) {
+                qty *= 2;
+            }
+            totalQty += qty;
+            weightedSum += prices[i] * qty;
+        }
+        return totalQty > 0 ? weightedSum / totalQty : NO_PRICE;
+    }
+
+    private static void mergeSortByPrice(long[] prices, int[] quantities, int from, int to,
+                                         long[] priceBuffer, int[] quantityBuffer) {
+        int length = to - from;
+        if (length < 16) {
+            // insertion sort is stable and fastest for short runs
+            for (int i = from + 1; i < to; i++) {
+                long price = prices[i];
+                int qty = quantities[i];
+                int j = i - 1;
+                while (j >= from && prices[j] > price) {
+                    prices[j + 1] = prices[j];
+                    quantities[j + 1] = quantities[j];
+                    j--;
+                }
+                prices[j + 1] = price;
+                quantities[j + 1] = qty;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSortByPrice(prices, quantities, from, mid, priceBuffer, quantityBuffer);
+        mergeSortByPrice(prices, quantities, mid, to, priceBuffer, quantityBuffer);
+        if (prices[mid - 1] <= prices[mid]) return;
+
+        System.arraycopy(prices, from, priceBuffer, from, length);
+        System.arraycopy(quantities, from, quantityBuffer, from, length);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && priceBuffer[left] <= priceBuffer[right])) {
+                prices[i] = priceBuffer[left];
+                quantities[i] = quantityBuffer[left++];
+            } else {
+                prices[i] = priceBuffer[right];
+                quantities[i] = quantityBuffer[right++];
+            }
+        }
+    }
+}
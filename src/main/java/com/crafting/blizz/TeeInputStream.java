@@ -0,0 +1,79 @@
+package com.crafting.blizz;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Counts the bytes read from the wrapped stream and optionally copies them to a
+ * sink. On close the rest of the stream is drained into the sink, so the copy is
+ * complete even if the reader stopped early.
+ */
+class TeeInputStream extends FilterInputStream {
+    private final OutputStream sink;
+    // volatile so fetch progress can be polled from other threads
+    private volatile long bytesRead;
+
+    TeeInputStream(InputStream in, OutputStream sink) {
+        super(in);
+        this.sink = sink;
+    }
+
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            bytesRead++;
+            if (sink != null) sink.write(b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int n = super.read(buffer, offset, length);
+        if (n > 0) {
+            bytesRead += n;
+            if (sink != null) sink.write(buffer, offset, n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // read instead of skipping so skipped bytes still reach the sink
+        byte[] buffer = new byte[8192];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read < 0) break;
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (sink != null) {
+                byte[] buffer = new byte[8192];
+                while (read(buffer, 0, buffer.length) >= 0) {
+                    // drain the remainder into the sink
+                }
+                sink.close();
+            }
+        } finally {
+            super.close();
+        }
+    }
+}
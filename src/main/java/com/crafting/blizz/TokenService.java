@@ -1,6 +1,13 @@
 package com.crafting.blizz;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -11,23 +18,140 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 
+/**
+ * Caches the OAuth client-credentials token. Concurrent callers share a single
+ * in-flight refresh, and the token is renewed in the background once it gets
+ * within {@code blizzard.tokenRefreshMarginSeconds} of expiry, so callers only
+ * wait on the token endpoint when there is no usable token at all.
+ */
 @Service
 public class TokenService {
-    private static final String TOKEN_URL = "https://oauth.battle.net/token";
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TokenService.class);
+    // a token this close to expiry is no longer handed out
+    private static final Duration EXPIRY_SKEW = Duration.ofSeconds(30);
+    // floor for the scheduled refresh so short-lived tokens cannot loop
+    private static final Duration MIN_REFRESH_DELAY = Duration.ofSeconds(30);
+
     private final RestTemplate rest = new RestTemplate();
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final String tokenUrl;
+    private final Duration refreshMargin;
+
+    private volatile CachedToken current;
+    private final AtomicReference<CompletableFuture<CachedToken>> inFlight = new AtomicReference<>();
+
+    private final Counter refreshes;
+    private final Counter refreshFailures;
+    private final Timer refreshTime;
+    private final Timer refreshFailureTime;
 
-    private String token;
-    private Instant expiresAt = Instant.EPOCH;
+    private record CachedToken(String value, Instant issuedAt, Instant expiresAt) {
+        boolean usable(Instant now) {
+            return now.isBefore(expiresAt.minus(EXPIRY_SKEW));
+        }
+    }
 
+    public TokenService(BlizzConfig blizzConfig, MeterRegistry meterRegistry) {
+        this.tokenUrl = blizzConfig.getTokenUrl();
+        this.refreshMargin = Duration.ofSeconds(blizzConfig.getTokenRefreshMarginSeconds());
+        this.refreshes = Counter.builder("blizzard.token.refreshes")
+            .tag("result", "success")
+            .register(meterRegistry);
+        this.refreshFailures = Counter.builder("blizzard.token.refreshes")
+            .tag("result", "failure")
+            .register(meterRegistry);
+        this.refreshTime = Timer.builder("blizzard.token.refresh")
+            .description("Duration of OAuth token requests")
+            .tag("result", "success")
+            .register(meterRegistry);
+        this.refreshFailureTime = Timer.builder("blizzard.token.refresh")
+            .description("Duration of OAuth token requests")
+            .tag("result", "failure")
+            .register(meterRegistry);
+        Gauge.builder("blizzard.token.age", this, TokenService::tokenAgeSeconds)
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns a valid access token, refreshing it first only if none is usable.
+     * @param clientId OAuth client id
+     * @param clientSecret OAuth client secret
+     * @return access token
+     */
     public String getAccessToken(String clientId, String clientSecret) {
-        if (token == null || Instant.now().isAfter(expiresAt.minusSeconds(30))) {
-            refreshToken(clientId, clientSecret);
+        CachedToken token = current;
+        Instant now = Instant.now();
+        if (token != null && token.usable(now)) {
+            if (now.isAfter(token.expiresAt().minus(refreshMargin))) {
+                // still valid, renew without making this caller wait
+                refresh(clientId, clientSecret);
+            }
+            return token.value();
+        }
+        try {
+            return refresh(clientId, clientSecret).join().value();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a refresh unless one is already running and returns the shared result.
+     */
+    private CompletableFuture<CachedToken> refresh(String clientId, String clientSecret) {
+        CompletableFuture<CachedToken> refresh = new CompletableFuture<>();
+        while (!inFlight.compareAndSet(null, refresh)) {
+            CompletableFuture<CachedToken> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+        }
+        refreshExecutor.execute(() -> {
+            long started = System.nanoTime();
+            try {
+                CachedToken token = requestToken(clientId, clientSecret);
+                refreshTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                current = token;
+                refreshes.increment();
+                scheduleRefresh(token, clientId, clientSecret);
+                inFlight.set(null);
+                refresh.complete(token);
+            } catch (RuntimeException e) {
+                refreshFailureTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                refreshFailures.increment();
+                logger.error("Token refresh failed", e);
+                inFlight.set(null);
+                refresh.completeExceptionally(e);
+            }
+        });
+        return refresh;
+    }
+
+    private void scheduleRefresh(CachedToken token, String clientId, String clientSecret) {
+        Duration delay = Duration.between(Instant.now(), token.expiresAt().minus(refreshMargin));
+        if (delay.compareTo(MIN_REFRESH_DELAY) < 0) {
+            delay = MIN_REFRESH_DELAY;
         }
-        return token;
+        CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS, refreshExecutor)
+            .execute(() -> {
+                // skip if a caller already renewed it in the meantime
+                if (current == token) {
+                    refresh(clientId, clientSecret);
+                }
+            });
     }
 
-    private void refreshToken(String clientId, String clientSecret) {
+    private CachedToken requestToken(String clientId, String clientSecret) {
         HttpHeaders headers = new HttpHeaders();
         headers.setBasicAuth(clientId, clientSecret);
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
@@ -35,7 +159,7 @@ public class TokenService {
         MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
         body.add("grant_type", "client_credentials");
         ResponseEntity<TokenResponse> resp = rest.postForEntity(
-            TOKEN_URL,
+            tokenUrl,
             new HttpEntity<>(body, headers),
             TokenResponse.class
         );
@@ -44,8 +168,19 @@ public class TokenService {
             throw new IllegalStateException("Failed to obtain token: " + resp);
         }
         TokenResponse tokenResponse = resp.getBody();
-        this.token = tokenResponse.getAccessToken();
-        this.expiresAt = Instant.now()
-                    .plusSeconds(Math.max(30, tokenResponse.getExpiresIn()));
+        Instant issuedAt = Instant.now();
+        logger.debug("Obtained access token valid for {} s", tokenResponse.getExpiresIn());
+        return new CachedToken(tokenResponse.getAccessToken(), issuedAt,
+            issuedAt.plusSeconds(Math.max(30, tokenResponse.getExpiresIn())));
+    }
+
+    private double tokenAgeSeconds() {
+        CachedToken token = current;
+        return token == null ? 0 : Duration.between(token.issuedAt(), Instant.now()).toMillis() / 1000.0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
     }
 }
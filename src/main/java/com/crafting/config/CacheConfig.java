@@ -0,0 +1,18 @@
+package com.crafting.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the Caffeine caches configured under spring.cache.*. Cache names are
+ * listed in spring.cache.cache-names so their hit/miss metrics are registered
+ * at startup.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    // full item list served by GET /items
+    public static final String ITEMS = "items";
+    // single items served by GET /items/ordered
+    public static final String ITEM_BY_ID = "itemById";
+}
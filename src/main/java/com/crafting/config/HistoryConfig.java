@@ -0,0 +1,24 @@
+package com.crafting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "history")
+public class HistoryConfig {
+    // monthly partitions kept ready ahead of the current month
+    private int partitionsAhead = 3;
+    // months of price history to keep, older partitions are expired
+    private int retentionMonths = 24;
+    // "detach" keeps expired partitions as standalone tables, "drop" deletes them
+    private String expiredPartitionAction = "detach";
+    // point budget used to pick a chart resolution when none is requested
+    private int maxPoints = 500;
+    // range charted when the request gives no start
+    private int defaultRangeDays = 7;
+}
@@ -0,0 +1,18 @@
+package com.crafting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "leaderboard")
+public class LeaderboardConfig {
+    // recipes kept per profession leaderboard
+    private int size = 50;
+    // SSE connections are closed after this long; clients reconnect on their own
+    private long streamTimeoutMinutes = 30;
+}
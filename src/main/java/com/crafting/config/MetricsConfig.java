@@ -0,0 +1,52 @@
+package com.crafting.config;
+
+import java.time.Duration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+
+/**
+ * Latency histograms for the item endpoints. Spring MVC already times every
+ * request as {@code http.server.requests}; this adds percentile histogram
+ * buckets and SLO boundaries to the ones under /items, so p95/p99 can be
+ * computed and alerted on from the Prometheus scrape. Other endpoints keep the
+ * plain count/sum/max timer.
+ */
+@Configuration
+public class MetricsConfig {
+    static final String ITEM_URI_PREFIX = "/items";
+    static final Duration[] ITEM_REQUEST_SLOS = {
+        Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+        Duration.ofMillis(500), Duration.ofSeconds(1)
+    };
+
+    @Bean
+    public MeterFilter itemRequestHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                String uri = id.getTag("uri");
+                if (!"http.server.requests".equals(id.getName()) || uri == null || !uri.startsWith(ITEM_URI_PREFIX)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                    .percentilesHistogram(true)
+                    .serviceLevelObjectives(toNanos(ITEM_REQUEST_SLOS))
+                    .build()
+                    .merge(config);
+            }
+        };
+    }
+
+    private static double[] toNanos(Duration[] durations) {
+        double[] nanos = new double[durations.length];
+        for (int i = 0; i < durations.length; i++) {
+            nanos[i] = durations[i].toNanos();
+        }
+        return nanos;
+    }
+}
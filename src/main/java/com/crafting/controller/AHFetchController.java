@@ -3,11 +3,21 @@ package com.crafting.controller;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Map;
+
 import com.crafting.blizz.AHDataFetcher;
+import com.crafting.blizz.FetchJob;
+import com.crafting.blizz.FetchTargetStatus;
 
 @CrossOrigin(origins = "*")
 @RestController
@@ -20,21 +30,85 @@ public class AHFetchController {
         this.ahDataFetcher = ahDataFetcher;
     }
 
+    /**
+     * Starts a fetch of all targets in the background. The response carries the job
+     * ID right away; progress is polled from {@link #getJob(String)}.
+     * @return 202 with the new job's ID, or 409 with the ID of the job already running
+     */
     @GetMapping("/fetch")
-    public ResponseEntity<String> fetchAHData() {
+    public ResponseEntity<Map<String, String>> fetchAHData() {
         logger.info("Received request to refresh AH data");
         try {
-            boolean started = ahDataFetcher.triggerFetch();
-            if (!started) {
+            AHDataFetcher.Submission submission = ahDataFetcher.submitFetch("manual");
+            String jobId = submission.job().getId();
+            if (!submission.started()) {
                 return ResponseEntity.status(HttpStatus.CONFLICT)
-                                    .body("Fetch already running");
+                                    .body(Map.of("message", "Fetch already running", "jobId", jobId));
             }
-            logger.debug("AH data fetch triggered successfully");
-            return ResponseEntity.accepted().body("Fetch started");
+            logger.debug("AH data fetch job {} submitted", jobId);
+            return ResponseEntity.accepted()
+                                .location(URI.create("/craftingAH/jobs/" + jobId))
+                                .body(Map.of("message", "Fetch started", "jobId", jobId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body(Map.of("message", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error triggering AH data fetch", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                .body("Fetch failed: " + e.getMessage());
+                                .body(Map.of("message", "Fetch failed: " + e.getMessage()));
         }
     }
+
+    /**
+     * Replays archived dumps from the snapshot directory through the ingest pipeline
+     * in the background, for load tests and price history backfills. Progress and
+     * throughput are reported like a fetch job.
+     * @param snapshot SHA-256 of one archived dump; all of them if omitted
+     * @return 202 with the job's ID, 409 with the ID of the job already running,
+     * 400 for a malformed hash, 404 if the snapshot does not exist, 503 without a snapshot directory
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<Map<String, String>> replay(@RequestParam(required = false) String snapshot) {
+        logger.info("Received request to replay {}", snapshot != null ? snapshot : "all snapshots");
+        try {
+            AHDataFetcher.Submission submission = ahDataFetcher.submitSnapshotReplay(snapshot);
+            String jobId = submission.job().getId();
+            if (!submission.started()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                                    .body(Map.of("message", "Fetch already running", "jobId", jobId));
+            }
+            return ResponseEntity.accepted()
+                                .location(URI.create("/craftingAH/jobs/" + jobId))
+                                .body(Map.of("message", "Replay started", "jobId", jobId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body(Map.of("message", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Progress of a fetch job: state, per-target stage timings, bytes and auction counts.
+     * @param id job ID returned by the fetch endpoint
+     * @return the job, or 404 if it is unknown or too old
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<FetchJob> getJob(@PathVariable String id) {
+        return ahDataFetcher.getJob(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * State of each configured fetch target and its last outcome.
+     * @return one status per target
+     */
+    @GetMapping("/targets")
+    public ResponseEntity<Collection<FetchTargetStatus>> getTargets() {
+        return ResponseEntity.ok(ahDataFetcher.getTargetStatuses());
+    }
 }
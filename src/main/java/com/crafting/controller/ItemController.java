@@ -1,7 +1,20 @@
 package com.crafting.controller;
 
+import com.crafting.config.HistoryConfig;
 import com.crafting.model.Item;
+import com.crafting.model.PriceResolution;
+import com.crafting.model.dto.ItemDTO;
+import com.crafting.model.dto.ItemPageDTO;
+import com.crafting.model.dto.PriceHistoryDTO;
 import com.crafting.repository.ItemRepository;
+import com.crafting.service.DataVersion;
+import com.crafting.service.ItemService;
+import com.crafting.service.PriceHistoryService;
+import com.crafting.service.ProfitLeaderboardService;
+import com.crafting.service.RecipeGraphService;
+import com.crafting.service.TrackedItemIndex;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,13 +26,21 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.WebRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
 
 
 import java.util.List;
@@ -30,24 +51,116 @@ import java.util.List;
 public class ItemController {
 
     private static final Logger logger = LoggerFactory.getLogger(ItemController.class);
+    // lets clients keep responses but revalidate them with If-None-Match every time
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int DEFAULT_PAGE_SIZE = 200;
+    private static final int MAX_PAGE_SIZE = 1000;
     private final ItemRepository itemRepository;
+    private final PriceHistoryService priceHistoryService;
+    private final HistoryConfig historyConfig;
+    private final TrackedItemIndex trackedItemIndex;
+    private final ItemService itemService;
+    private final DataVersion dataVersion;
+    private final RecipeGraphService recipeGraphService;
+    private final ProfitLeaderboardService profitLeaderboardService;
+    // the application's mapper, so streamed lines match the JSON of /items and /items/page
+    private final ObjectWriter itemWriter;
 
-    public ItemController(ItemRepository itemRepository) {
+    public ItemController(ItemRepository itemRepository, PriceHistoryService priceHistoryService,
+                          HistoryConfig historyConfig, TrackedItemIndex trackedItemIndex,
+                          ItemService itemService, DataVersion dataVersion,
+                          RecipeGraphService recipeGraphService,
+                          ProfitLeaderboardService profitLeaderboardService,
+                          ObjectMapper objectMapper) {
         this.itemRepository = itemRepository;
+        this.itemService = itemService;
+        this.dataVersion = dataVersion;
+        this.priceHistoryService = priceHistoryService;
+        this.historyConfig = historyConfig;
+        this.trackedItemIndex = trackedItemIndex;
+        this.recipeGraphService = recipeGraphService;
+        this.profitLeaderboardService = profitLeaderboardService;
+        this.itemWriter = objectMapper.writerFor(ItemDTO.class);
     }
 
     /**
-     * Returns all items in the database.
+     * Returns all items in the database. Answers 304 when the client's ETag
+     * matches the current data version.
      * @return List of all items
      */
     @GetMapping
-    public ResponseEntity<List<Item>> getAllItems() {
+    public ResponseEntity<List<ItemDTO>> getAllItems(WebRequest request) {
         logger.info("GET /items called");
-        List<Item> items = itemRepository.findAll();
+        if (request.checkNotModified(dataVersion.etag())) {
+            return null;
+        }
+        List<ItemDTO> items = itemService.findAll();
         logger.info(items.isEmpty()
             ? "No items found in the database"
             : "Returning {} items", items.size());
-        return ResponseEntity.ok(items);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(items);
+    }
+
+    /**
+     * Returns one keyset page of items, ordered by ID. Follow nextAfterId until
+     * it is null to walk the whole catalog; each page is a single index seek.
+     * @param afterId last ID of the previous page, 0 for the first page
+     * @param limit page size, 1 to 1000
+     * @return items and the afterId of the next page
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ItemPageDTO> getItemPage(
+        @RequestParam(defaultValue = "0") long afterId,
+        @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+        WebRequest request
+    ) {
+        logger.info("GET /items/page called with afterId={}, limit={}", afterId, limit);
+        if (afterId < 0 || limit < 1 || limit > MAX_PAGE_SIZE) {
+            logger.warn("Invalid item page request afterId={}, limit={}", afterId, limit);
+            return ResponseEntity.badRequest().build();
+        }
+        if (request.checkNotModified(dataVersion.etag())) {
+            return null;
+        }
+        ItemPageDTO page = itemService.findPage(afterId, limit);
+        logger.info("Returning {} items after ID {}", page.getItems().size(), afterId);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(page);
+    }
+
+    /**
+     * Streams all items as newline-delimited JSON, one item per line, written
+     * straight from a database cursor so memory use does not grow with the catalog.
+     */
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamItems(WebRequest request) {
+        logger.info("GET /items/stream called");
+        if (request.checkNotModified(dataVersion.etag())) {
+            return null;
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                long count = itemService.forEachItem(item -> writeNdjsonLine(out, item));
+                logger.info("Streamed {} items", count);
+            } catch (UncheckedIOException e) {
+                // client went away mid-stream
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(NDJSON))
+            .cacheControl(REVALIDATE)
+            .body(body);
+    }
+
+    private void writeNdjsonLine(OutputStream out, ItemDTO item) {
+        try {
+            // not writeValue(out, ...), which would close the response stream after the first item
+            out.write(itemWriter.writeValueAsBytes(item));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
@@ -55,13 +168,16 @@ public class ItemController {
      * @return List of all item IDs
      */
     @GetMapping("/ids")
-    public ResponseEntity<List<Long>> getAllItemIds() {
+    public ResponseEntity<List<Long>> getAllItemIds(WebRequest request) {
         logger.info("GET /items/ids called");
+        if (request.checkNotModified(dataVersion.etag())) {
+            return null;
+        }
         List<Long> itemIds = itemRepository.findAllIds();
         logger.info(itemIds.isEmpty()
             ? "No item IDs found in the database"
             : "Returning {} item IDs", itemIds.size());
-        return ResponseEntity.ok(itemIds);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(itemIds);
     }
 
     /**
@@ -70,8 +186,9 @@ public class ItemController {
      * @return List of ItemDTOs in the order of the provided IDs
      */
     @GetMapping("/ordered")
-    public ResponseEntity<List<Item>> getItems(
-        @RequestParam(required = false) List<Long> ids
+    public ResponseEntity<List<ItemDTO>> getItems(
+        @RequestParam(required = false) List<Long> ids,
+        WebRequest request
     ) {
         logger.info("GET /items/ordered called with ids: {}", ids);
         if (ids == null || ids.isEmpty()) {
@@ -79,16 +196,56 @@ public class ItemController {
             throw new IllegalArgumentException(
                 "ids parameter is required and cannot be empty");
         }
-        //first collects all items from DB
-        // then returns them in the requested order
-        Map<Long, Item> itemsMap = itemRepository.findAllById(ids)
-            .stream()
-            .collect(Collectors.toMap(Item::getId, item -> item));
-        List<Item> orderedItems = ids.stream()
-            .map(id -> itemsMap.get(id))
-            .toList();
+        if (request.checkNotModified(dataVersion.etag())) {
+            return null;
+        }
+        // cached items first, the rest from DB in one query, in the requested order
+        List<ItemDTO> orderedItems = itemService.findOrdered(ids);
         logger.info("Returning {} items in requested order", orderedItems.size());
-        return ResponseEntity.ok(orderedItems);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(orderedItems);
+    }
+
+    /**
+     * Returns price history of an item for charting. Without an explicit resolution
+     * the finest one that keeps the point count within budget is used, so long
+     * ranges are served from the hourly or daily rollups.
+     * @param id ID of the item
+     * @param resolution raw, hourly or daily; optional
+     * @param from start of the range (ISO-8601), defaults to a week before to
+     * @param to end of the range (ISO-8601), defaults to now
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<PriceHistoryDTO> getItemHistory(
+        @PathVariable Long id,
+        @RequestParam(required = false) String resolution,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+        WebRequest request
+    ) {
+        logger.info("GET /items/{}/history called with resolution={}, from={}, to={}", id, resolution, from, to);
+        OffsetDateTime rangeEnd = to != null ? to : OffsetDateTime.now();
+        OffsetDateTime rangeStart = from != null ? from : rangeEnd.minusDays(historyConfig.getDefaultRangeDays());
+        if (!rangeStart.isBefore(rangeEnd)) {
+            logger.warn("Invalid history range {} - {}", rangeStart, rangeEnd);
+            return ResponseEntity.badRequest().build();
+        }
+        PriceResolution requested = null;
+        if (resolution != null && !resolution.isBlank() && !"auto".equalsIgnoreCase(resolution)) {
+            try {
+                requested = PriceResolution.valueOf(resolution.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Unknown history resolution: {}", resolution);
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        // only explicit ranges are stable enough to revalidate, an open range moves with the clock
+        if (to != null && request.checkNotModified(dataVersion.etag())) {
+            return null;
+        }
+        PriceHistoryDTO history = priceHistoryService.getHistory(id, requested, rangeStart, rangeEnd);
+        logger.info("Returning {} {} price points for item {}", history.getPoints().size(),
+            history.getResolution(), id);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(history);
     }
 
     /**
@@ -105,14 +262,18 @@ public class ItemController {
             logger.warn("Attempted to create item with existing ID: {}", item.getId());
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
-        Item savedItem = itemRepository.save(item);
+        Item savedItem = itemService.save(item);
+        trackedItemIndex.add(savedItem.getId());
+        refreshCosts();
         logger.info("Item created with ID: {}", savedItem.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(savedItem);
     }
 
     /**
-     * Deletes an item from the database by ID.
+     * Deletes an item from the database by ID, together with its prices and history.
+     * Items still used by a recipe, as ingredient or output, are not deleted.
      * @param id ID of the item to delete
+     * @return 204, 404 if the item does not exist, 409 if a recipe uses it
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteItem(@PathVariable Long id) {
@@ -121,7 +282,19 @@ public class ItemController {
             logger.warn("Attempted to delete non-existing item with ID: {}", id);
             return ResponseEntity.notFound().build();
         }
-        itemRepository.deleteById(id);
+        if (itemRepository.isUsedByRecipes(id)) {
+            logger.warn("Attempted to delete item {} still used by recipes", id);
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        try {
+            itemService.deleteById(id);
+        } catch (DataIntegrityViolationException e) {
+            // a recipe started using the item since the check
+            logger.warn("Item {} became used by a recipe before it was deleted", id);
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        trackedItemIndex.remove(id);
+        refreshCosts();
         logger.info("Item with ID: {} deleted", id);
         return ResponseEntity.noContent().build();
     }
@@ -143,8 +316,21 @@ public class ItemController {
             return ResponseEntity.notFound().build();
         }
         item.setId(id);
-        Item updatedItem = itemRepository.save(item);
+        Item updatedItem = itemService.save(item);
+        trackedItemIndex.add(id);
+        refreshCosts();
         logger.info("Item with ID: {} updated", id);
         return ResponseEntity.ok(updatedItem);
     }
+
+    // crafting costs are derived from the items and their prices
+    private void refreshCosts() {
+        recipeGraphService.invalidate();
+        try {
+            profitLeaderboardService.refresh();
+        } catch (Exception e) {
+            // the write went through; leaderboards catch up on the next fetch
+            logger.error("Refreshing profit leaderboards failed", e);
+        }
+    }
 }
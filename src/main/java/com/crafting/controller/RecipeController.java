@@ -1,29 +1,148 @@
 package com.crafting.controller;
 
-import com.crafting.model.Recipe;
+import com.crafting.model.RecipeGraph;
+import com.crafting.model.dto.LeaderboardDTO;
+import com.crafting.model.dto.RecipeCostDTO;
+import com.crafting.model.dto.RecipeDTO;
+import com.crafting.model.dto.RecipeIngredientDTO;
+import com.crafting.model.dto.RecipeProfitDTO;
 import com.crafting.repository.RecipeRepository;
+import com.crafting.service.CraftingCostService;
+import com.crafting.service.ProfitLeaderboardService;
+import com.crafting.service.RecipeGraphService;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+@CrossOrigin(origins = "*")
 @RestController
 @RequestMapping("/recipes")
 public class RecipeController {
 
+    private static final Logger logger = LoggerFactory.getLogger(RecipeController.class);
+    private static final int MAX_PROFITS = 500;
     private final RecipeRepository recipeRepository;
+    private final RecipeGraphService recipeGraphService;
+    private final CraftingCostService craftingCostService;
+    private final ProfitLeaderboardService profitLeaderboardService;
 
-    public RecipeController(RecipeRepository recipeRepository) {
+    public RecipeController(RecipeRepository recipeRepository, RecipeGraphService recipeGraphService,
+                            CraftingCostService craftingCostService,
+                            ProfitLeaderboardService profitLeaderboardService) {
         this.recipeRepository = recipeRepository;
+        this.recipeGraphService = recipeGraphService;
+        this.craftingCostService = craftingCostService;
+        this.profitLeaderboardService = profitLeaderboardService;
     }
 
-    /*
+    /**
+     * Returns the most profitable recipes at current prices, each ingredient bought
+     * or crafted, whichever is cheaper.
+     * @param professionId only recipes of this profession; optional
+     * @param limit maximum number of recipes, 1 to 500
+     * @return recipes ordered by profit, highest first
+     */
+    @GetMapping("/profits")
+    public ResponseEntity<List<RecipeProfitDTO>> getProfits(
+        @RequestParam(required = false) Integer professionId,
+        @RequestParam(defaultValue = "50") int limit
+    ) {
+        logger.info("GET /recipes/profits called with professionId={}, limit={}", professionId, limit);
+        if (limit < 1 || limit > MAX_PROFITS) {
+            logger.warn("Invalid profits limit: {}", limit);
+            return ResponseEntity.badRequest().build();
+        }
+        List<RecipeProfitDTO> profits = craftingCostService.topProfits(professionId, limit);
+        logger.info("Returning {} recipe profits", profits.size());
+        return ResponseEntity.ok(profits);
+    }
+
+    /**
+     * Returns the precomputed leaderboard of the most profitable recipes, rebuilt
+     * after every fetch cycle.
+     * @param professionId profession to rank; optional, all recipes when omitted
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<LeaderboardDTO> getLeaderboard(@RequestParam(required = false) Integer professionId) {
+        logger.info("GET /recipes/leaderboard called with professionId={}", professionId);
+        return ResponseEntity.ok(profitLeaderboardService.getLeaderboard(professionId));
+    }
+
+    /**
+     * Server-Sent Events stream of the leaderboard: the current one right away,
+     * then a "leaderboard" event after every fetch cycle that changed it.
+     * @param professionId profession to follow; optional, all recipes when omitted
+     */
+    @GetMapping(value = "/leaderboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLeaderboard(@RequestParam(required = false) Integer professionId) {
+        logger.info("GET /recipes/leaderboard/stream called with professionId={}", professionId);
+        return profitLeaderboardService.subscribe(professionId);
+    }
+
+    /**
+     * Returns the cost breakdown of a recipe: its profit and how each ingredient is sourced.
+     * @param id ID of the recipe
+     */
+    @GetMapping("/{id}/cost")
+    public ResponseEntity<RecipeCostDTO> getRecipeCost(@PathVariable Long id) {
+        logger.info("GET /recipes/{}/cost called", id);
+        return craftingCostService.getRecipeCost(id)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> {
+                logger.warn("Cost requested for unknown recipe {}", id);
+                return ResponseEntity.notFound().build();
+            });
+    }
+
+    /**
+     * Reloads the recipe graph from the database, after recipes were changed there,
+     * and rebuilds costs and leaderboards from it.
+     * @return recipe and item counts of the new graph
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Integer>> reloadRecipes() {
+        logger.info("POST /recipes/reload called");
+        RecipeGraph graph = recipeGraphService.reload();
+        profitLeaderboardService.refresh();
+        return ResponseEntity.ok(Map.of("recipes", graph.recipeCount(), "items", graph.itemCount()));
+    }
+
+    /**
+     * Returns all recipes with their ingredients.
+     * @return List of all recipes ordered by ID
+     */
     @GetMapping
     public ResponseEntity<List<RecipeDTO>> getAllRecipes() {
-        return ResponseEntity.ok(recipeRepository.findAllDtos());
+        logger.info("GET /recipes called");
+        List<RecipeDTO> recipes = recipeRepository.findAllDtos();
+        RecipeGraph graph = recipeGraphService.getGraph();
+        for (RecipeDTO recipe : recipes) {
+            int r = graph.recipeIndex(recipe.getId());
+            if (r < 0) {
+                continue;
+            }
+            List<RecipeIngredientDTO> ingredients = new ArrayList<>(graph.ingredientEnd(r) - graph.ingredientStart(r));
+            for (int k = graph.ingredientStart(r); k < graph.ingredientEnd(r); k++) {
+                ingredients.add(new RecipeIngredientDTO(
+                    graph.itemId(graph.ingredientItem(k)), graph.ingredientQuantity(k)));
+            }
+            recipe.setIngredients(ingredients);
+        }
+        logger.info("Returning {} recipes", recipes.size());
+        return ResponseEntity.ok(recipes);
     }
-    */
 }
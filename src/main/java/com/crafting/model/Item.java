@@ -65,6 +65,11 @@ public class Item {
     @Column(name = "current_price_recorded_at")
     private OffsetDateTime currentPriceRecordedAt;
 
+    public Item(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
     @Override
     public String toString() {
         return "Item{id=" + id + ", name='" + name + '\'' + '}';
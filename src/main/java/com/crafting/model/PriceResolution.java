@@ -0,0 +1,27 @@
+package com.crafting.model;
+
+import java.time.Duration;
+
+/**
+ * Granularity of stored price history, from raw fetch samples to daily rollups.
+ */
+public enum PriceResolution {
+    RAW(Duration.ofMinutes(20)), // one sample per fetch cycle
+    HOURLY(Duration.ofHours(1)),
+    DAILY(Duration.ofDays(1));
+
+    private final Duration step;
+
+    PriceResolution(Duration step) {
+        this.step = step;
+    }
+
+    public Duration getStep() {
+        return step;
+    }
+
+    /** Expected number of points this resolution yields for a range. */
+    public long pointsFor(Duration range) {
+        return range.toSeconds() / step.toSeconds() + 1;
+    }
+}
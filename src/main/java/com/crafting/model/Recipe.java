@@ -1,8 +1,12 @@
 package com.crafting.model;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -14,8 +18,6 @@ import jakarta.persistence.Table;
 
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -51,20 +53,20 @@ public class Recipe {
     @JoinColumn(name = "profession_id")
     private Profession profession;
 
-    // Store ingredients as raw JSON string; Postgres can map to jsonb via migrations if needed
-    @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "ingredients_json")
-    private String ingredientsJson;
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "recipe_ingredients", joinColumns = @JoinColumn(name = "recipe_id"))
+    @Builder.Default
+    private List<RecipeIngredient> ingredients = new ArrayList<>();
 
     @Builder.Default
     @Column(name = "output_quantity", nullable = false)
     private Float outputQuantity = 1.0f;
 
 
-    public Recipe(String name, Item outputItem, String ingredientsJson) {
+    public Recipe(String name, Item outputItem, List<RecipeIngredient> ingredients) {
         this.name = name;
         this.outputItem = outputItem;
-        this.ingredientsJson = ingredientsJson;
+        this.ingredients = new ArrayList<>(ingredients);
         this.outputQuantity = 1.0f;
     }
 
@@ -0,0 +1,286 @@
+package com.crafting.model;
+
+import java.util.Arrays;
+
+/**
+ * Immutable in-memory view of all recipes and their ingredients, built once from
+ * recipe_ingredients so cost queries never touch the database.
+ *
+ * Recipes and items are addressed by dense indexes (0..n-1). Adjacency is kept in
+ * compressed-row form: the ingredients of recipe r are the entries
+ * [ingredientStart(r), ingredientEnd(r)) of the ingredient arrays, and likewise
+ * for the recipes producing or using an item. Recipe and item IDs are sorted, so
+ * ID lookups are binary searches.
+ */
+public final class RecipeGraph {
+    public static final RecipeGraph EMPTY = new Builder().build();
+    // profession of recipes that have none
+    public static final int NO_PROFESSION = 0;
+
+    private final long[] recipeIds;
+    private final String[] recipeNames;
+    private final int[] professionIds;
+    private final int[] outputItem;
+    private final float[] outputQuantity;
+    private final int[] ingredientStart;
+    private final int[] ingredientItem;
+    private final int[] ingredientQuantity;
+
+    private final long[] itemIds;
+    private final int[] producedByStart;
+    private final int[] producedBy;
+    private final int[] usedByStart;
+    private final int[] usedBy;
+
+    private RecipeGraph(long[] recipeIds, String[] recipeNames, int[] professionIds,
+                        int[] outputItem, float[] outputQuantity,
+                        int[] ingredientStart, int[] ingredientItem, int[] ingredientQuantity,
+                        long[] itemIds) {
+        this.recipeIds = recipeIds;
+        this.recipeNames = recipeNames;
+        this.professionIds = professionIds;
+        this.outputItem = outputItem;
+        this.outputQuantity = outputQuantity;
+        this.ingredientStart = ingredientStart;
+        this.ingredientItem = ingredientItem;
+        this.ingredientQuantity = ingredientQuantity;
+        this.itemIds = itemIds;
+
+        int items = itemIds.length;
+        // item -> recipes producing it
+        producedByStart = new int[items + 1];
+        for (int r = 0; r < recipeIds.length; r++) {
+            producedByStart[outputItem[r] + 1]++;
+        }
+        prefixSum(producedByStart);
+        producedBy = new int[recipeIds.length];
+        int[] fill = Arrays.copyOf(producedByStart, items);
+        for (int r = 0; r < recipeIds.length; r++) {
+            producedBy[fill[outputItem[r]]++] = r;
+        }
+        // item -> recipes consuming it
+        usedByStart = new int[items + 1];
+        for (int k = 0; k < ingredientItem.length; k++) {
+            usedByStart[ingredientItem[k] + 1]++;
+        }
+        prefixSum(usedByStart);
+        usedBy = new int[ingredientItem.length];
+        fill = Arrays.copyOf(usedByStart, items);
+        for (int r = 0; r < recipeIds.length; r++) {
+            for (int k = ingredientStart[r]; k < ingredientStart[r + 1]; k++) {
+                usedBy[fill[ingredientItem[k]]++] = r;
+            }
+        }
+    }
+
+    private static void prefixSum(int[] counts) {
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+    }
+
+    public int recipeCount() {
+        return recipeIds.length;
+    }
+
+    public int itemCount() {
+        return itemIds.length;
+    }
+
+    /**
+     * @return index of the recipe, or -1 if it is not in the graph
+     */
+    public int recipeIndex(long recipeId) {
+        int index = Arrays.binarySearch(recipeIds, recipeId);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * @return index of the item, or -1 if no recipe produces or uses it
+     */
+    public int itemIndex(long itemId) {
+        int index = Arrays.binarySearch(itemIds, itemId);
+        return index >= 0 ? index : -1;
+    }
+
+    public long recipeId(int recipe) {
+        return recipeIds[recipe];
+    }
+
+    public String recipeName(int recipe) {
+        return recipeNames[recipe];
+    }
+
+    /**
+     * @return profession ID of the recipe, or {@link #NO_PROFESSION}
+     */
+    public int professionId(int recipe) {
+        return professionIds[recipe];
+    }
+
+    public long itemId(int item) {
+        return itemIds[item];
+    }
+
+    public int outputItem(int recipe) {
+        return outputItem[recipe];
+    }
+
+    public float outputQuantity(int recipe) {
+        return outputQuantity[recipe];
+    }
+
+    public int ingredientStart(int recipe) {
+        return ingredientStart[recipe];
+    }
+
+    public int ingredientEnd(int recipe) {
+        return ingredientStart[recipe + 1];
+    }
+
+    public int ingredientItem(int entry) {
+        return ingredientItem[entry];
+    }
+
+    public int ingredientQuantity(int entry) {
+        return ingredientQuantity[entry];
+    }
+
+    public int producedByStart(int item) {
+        return producedByStart[item];
+    }
+
+    public int producedByEnd(int item) {
+        return producedByStart[item + 1];
+    }
+
+    public int producedBy(int entry) {
+        return producedBy[entry];
+    }
+
+    public int usedByStart(int item) {
+        return usedByStart[item];
+    }
+
+    public int usedByEnd(int item) {
+        return usedByStart[item + 1];
+    }
+
+    public int usedBy(int entry) {
+        return usedBy[entry];
+    }
+
+    /**
+     * Collects recipes and ingredients in any order and packs them into a graph.
+     * Ingredients of recipes that were never added are ignored.
+     */
+    public static final class Builder {
+        private long[] recipeIds = new long[64];
+        private long[] outputItemIds = new long[64];
+        private float[] outputQuantities = new float[64];
+        private int[] professionIds = new int[64];
+        private String[] names = new String[64];
+        private int recipes;
+
+        private long[] ingredientRecipeIds = new long[256];
+        private long[] ingredientItemIds = new long[256];
+        private int[] ingredientQuantities = new int[256];
+        private int ingredients;
+
+        public Builder addRecipe(long recipeId, long outputItemId, float outputQuantity) {
+            return addRecipe(recipeId, outputItemId, outputQuantity, NO_PROFESSION, null);
+        }
+
+        public Builder addRecipe(long recipeId, long outputItemId, float outputQuantity,
+                                 int professionId, String name) {
+            if (recipes == recipeIds.length) {
+                int capacity = recipes * 2;
+                recipeIds = Arrays.copyOf(recipeIds, capacity);
+                outputItemIds = Arrays.copyOf(outputItemIds, capacity);
+                outputQuantities = Arrays.copyOf(outputQuantities, capacity);
+                professionIds = Arrays.copyOf(professionIds, capacity);
+                names = Arrays.copyOf(names, capacity);
+            }
+            recipeIds[recipes] = recipeId;
+            outputItemIds[recipes] = outputItemId;
+            outputQuantities[recipes] = outputQuantity;
+            professionIds[recipes] = professionId;
+            names[recipes] = name;
+            recipes++;
+            return this;
+        }
+
+        public Builder addIngredient(long recipeId, long itemId, int quantity) {
+            if (ingredients == ingredientRecipeIds.length) {
+                int capacity = ingredients * 2;
+                ingredientRecipeIds = Arrays.copyOf(ingredientRecipeIds, capacity);
+                ingredientItemIds = Arrays.copyOf(ingredientItemIds, capacity);
+                ingredientQuantities = Arrays.copyOf(ingredientQuantities, capacity);
+            }
+            ingredientRecipeIds[ingredients] = recipeId;
+            ingredientItemIds[ingredients] = itemId;
+            ingredientQuantities[ingredients] = quantity;
+            ingredients++;
+            return this;
+        }
+
+        public RecipeGraph build() {
+            // recipes sorted by ID
+            Integer[] recipeOrder = new Integer[recipes];
+            for (int i = 0; i < recipes; i++) recipeOrder[i] = i;
+            Arrays.sort(recipeOrder, (a, b) -> Long.compare(recipeIds[a], recipeIds[b]));
+            long[] sortedRecipeIds = new long[recipes];
+            for (int i = 0; i < recipes; i++) {
+                sortedRecipeIds[i] = recipeIds[recipeOrder[i]];
+                if (i > 0 && sortedRecipeIds[i] == sortedRecipeIds[i - 1]) {
+                    throw new IllegalArgumentException("Duplicate recipe " + sortedRecipeIds[i]);
+                }
+            }
+
+            // every item that is produced or consumed gets an index
+            long[] allItems = new long[recipes + ingredients];
+            System.arraycopy(outputItemIds, 0, allItems, 0, recipes);
+            System.arraycopy(ingredientItemIds, 0, allItems, recipes, ingredients);
+            Arrays.sort(allItems);
+            int distinct = 0;
+            for (int i = 0; i < allItems.length; i++) {
+                if (i == 0 || allItems[i] != allItems[i - 1]) allItems[distinct++] = allItems[i];
+            }
+            long[] itemIds = Arrays.copyOf(allItems, distinct);
+
+            int[] outputItem = new int[recipes];
+            float[] outputQuantity = new float[recipes];
+            int[] sortedProfessionIds = new int[recipes];
+            String[] sortedNames = new String[recipes];
+            for (int i = 0; i < recipes; i++) {
+                outputItem[i] = Arrays.binarySearch(itemIds, outputItemIds[recipeOrder[i]]);
+                outputQuantity[i] = outputQuantities[recipeOrder[i]];
+                sortedProfessionIds[i] = professionIds[recipeOrder[i]];
+                sortedNames[i] = names[recipeOrder[i]];
+            }
+
+            // bucket ingredients by recipe index
+            int[] ingredientRecipe = new int[ingredients];
+            int[] ingredientStart = new int[recipes + 1];
+            for (int k = 0; k < ingredients; k++) {
+                int recipe = Arrays.binarySearch(sortedRecipeIds, ingredientRecipeIds[k]);
+                ingredientRecipe[k] = recipe;
+                if (recipe >= 0) ingredientStart[recipe + 1]++;
+            }
+            prefixSum(ingredientStart);
+            int kept = ingredientStart[recipes];
+            int[] ingredientItem = new int[kept];
+            int[] ingredientQuantity = new int[kept];
+            int[] fill = Arrays.copyOf(ingredientStart, recipes);
+            for (int k = 0; k < ingredients; k++) {
+                int recipe = ingredientRecipe[k];
+                if (recipe < 0) continue;
+                int slot = fill[recipe]++;
+                ingredientItem[slot] = Arrays.binarySearch(itemIds, ingredientItemIds[k]);
+                ingredientQuantity[slot] = ingredientQuantities[k];
+            }
+            return new RecipeGraph(sortedRecipeIds, sortedNames, sortedProfessionIds, outputItem, outputQuantity,
+                ingredientStart, ingredientItem, ingredientQuantity, itemIds);
+        }
+    }
+}
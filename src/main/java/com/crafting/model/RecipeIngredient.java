@@ -0,0 +1,29 @@
+package com.crafting.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One ingredient of a recipe, a row of recipe_ingredients.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class RecipeIngredient {
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    // amount consumed per craft
+    @Column(nullable = false)
+    private int quantity;
+}
@@ -0,0 +1,18 @@
+package com.crafting.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * How one ingredient of a recipe is sourced. craftedWithRecipeId is null when
+ * buying the ingredient is cheapest.
+ */
+@Getter
+@AllArgsConstructor
+public class IngredientCostDTO {
+    private long itemId;
+    private int quantity;
+    private Long marketPrice;
+    private Long unitCost;
+    private Long craftedWithRecipeId;
+}
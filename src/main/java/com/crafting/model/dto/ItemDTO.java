@@ -0,0 +1,23 @@
+package com.crafting.model.dto;
+
+import java.time.OffsetDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Read model of an item, filled by a constructor-projection query with the
+ * profession joined in, so item reads never hydrate entities or proxies.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemDTO {
+    private Long id;
+    private String name;
+    private Integer professionId;
+    private String professionName;
+    private Short quality;
+    private boolean finishingIngredient;
+    private Long currentPrice;
+    private OffsetDateTime currentPriceRecordedAt;
+}
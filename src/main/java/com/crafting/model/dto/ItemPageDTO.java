@@ -0,0 +1,17 @@
+package com.crafting.model.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One keyset page of items. Pass nextAfterId as afterId to get the next page;
+ * it is null on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemPageDTO {
+    private List<ItemDTO> items;
+    private Long nextAfterId;
+}
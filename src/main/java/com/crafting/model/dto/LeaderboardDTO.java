@@ -0,0 +1,19 @@
+package com.crafting.model.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Most profitable recipes of a profession, or of all professions when
+ * professionId is null, as of the last fetch cycle.
+ */
+@Getter
+@AllArgsConstructor
+public class LeaderboardDTO {
+    private Integer professionId;
+    private OffsetDateTime updatedAt;
+    private List<RecipeProfitDTO> entries;
+}
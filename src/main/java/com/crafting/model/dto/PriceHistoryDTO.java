@@ -0,0 +1,19 @@
+package com.crafting.model.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import com.crafting.model.PriceResolution;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PriceHistoryDTO {
+    private Long itemId;
+    private PriceResolution resolution;
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+    private List<PricePointDTO> points;
+}
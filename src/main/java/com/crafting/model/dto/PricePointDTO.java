@@ -0,0 +1,21 @@
+package com.crafting.model.dto;
+
+import java.time.OffsetDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One point of a price chart. Raw samples have open = high = low = close = avg.
+ */
+@Getter
+@AllArgsConstructor
+public class PricePointDTO {
+    private OffsetDateTime time;
+    private long open;
+    private long high;
+    private long low;
+    private long close;
+    private long avg;
+    private int samples;
+}
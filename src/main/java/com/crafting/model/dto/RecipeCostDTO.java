@@ -0,0 +1,16 @@
+package com.crafting.model.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Profit of a recipe with the buy-or-craft choice made for each ingredient.
+ */
+@Getter
+@AllArgsConstructor
+public class RecipeCostDTO {
+    private RecipeProfitDTO recipe;
+    private List<IngredientCostDTO> ingredients;
+}
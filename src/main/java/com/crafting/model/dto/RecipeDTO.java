@@ -0,0 +1,34 @@
+package com.crafting.model.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Read model of a recipe. The recipe row comes from a constructor-projection
+ * query; ingredients are filled in from the in-memory recipe graph.
+ */
+@Getter
+public class RecipeDTO {
+    private final Long id;
+    private final String name;
+    private final Long outputItemId;
+    private final String outputItemName;
+    private final Integer professionId;
+    private final String professionName;
+    private final Float outputQuantity;
+    @Setter
+    private List<RecipeIngredientDTO> ingredients = List.of();
+
+    public RecipeDTO(Long id, String name, Long outputItemId, String outputItemName,
+                     Integer professionId, String professionName, Float outputQuantity) {
+        this.id = id;
+        this.name = name;
+        this.outputItemId = outputItemId;
+        this.outputItemName = outputItemName;
+        this.professionId = professionId;
+        this.professionName = professionName;
+        this.outputQuantity = outputQuantity;
+    }
+}
@@ -0,0 +1,11 @@
+package com.crafting.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class RecipeIngredientDTO {
+    private long itemId;
+    private int quantity;
+}
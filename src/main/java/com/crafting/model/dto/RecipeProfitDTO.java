@@ -0,0 +1,21 @@
+package com.crafting.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Cost and profit of one craft of a recipe, in copper. Amounts are null when they
+ * cannot be priced.
+ */
+@Getter
+@AllArgsConstructor
+public class RecipeProfitDTO {
+    private long recipeId;
+    private String name;
+    private Integer professionId;
+    private long outputItemId;
+    private float outputQuantity;
+    private Long craftCost;
+    private Long outputValue;
+    private Long profit;
+}
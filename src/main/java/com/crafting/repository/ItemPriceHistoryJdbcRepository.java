@@ -0,0 +1,88 @@
+package com.crafting.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.crafting.blizz.ItemPrices;
+
+/**
+ * Append-only writes to item_price_history, batched so a whole fetch cycle is a
+ * single round trip (the Postgres driver rewrites the batch into multi-row inserts).
+ * The table is unique per item, source and time, so a row that is already there,
+ * e.g. from replaying the same dump, is not appended again.
+ */
+@Repository
+public class ItemPriceHistoryJdbcRepository {
+    private static final String INSERT_HISTORY_SQL =
+        "INSERT INTO item_price_history (item_id, price, recorded_at, source) VALUES (?, ?, ?, ?)"
+            + " ON CONFLICT (source, recorded_at, item_id) DO NOTHING";
+
+    private static final String SELECT_RECORDED_ITEMS_SQL =
+        "SELECT item_id FROM item_price_history WHERE source = ? AND recorded_at = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemPriceHistoryJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Appends one history row per priced item that has none yet for this source and time.
+     * @param prices computed prices
+     * @param skippedItemIds items to leave out, e.g. ones missing from the items table
+     * @param recordedAt timestamp of the fetch
+     * @param source where the prices came from, e.g. the API region
+     * @return IDs of the items not appended: the skipped ones and those already recorded
+     */
+    public int[] appendAll(ItemPrices prices, int[] skippedItemIds, OffsetDateTime recordedAt, String source) {
+        // rewritten batches report no per-row counts, so look up what is already recorded first
+        List<Long> recorded = jdbcTemplate.queryForList(SELECT_RECORDED_ITEMS_SQL, Long.class, source, recordedAt);
+        int[] excluded = Arrays.copyOf(skippedItemIds, skippedItemIds.length + recorded.size());
+        int excludedCount = skippedItemIds.length;
+        for (long itemId : recorded) {
+            excluded[excludedCount++] = (int) itemId;
+        }
+        excluded = Arrays.copyOf(excluded, excludedCount);
+        Arrays.sort(excluded);
+
+        int[] rows = new int[prices.size()];
+        int rowCount = 0;
+        int[] notAppended = new int[prices.size()];
+        int notAppendedCount = 0;
+        for (int i = 0; i < prices.size(); i++) {
+            if (Arrays.binarySearch(excluded, prices.itemId(i)) < 0) {
+                rows[rowCount++] = i;
+            } else {
+                notAppended[notAppendedCount++] = prices.itemId(i);
+            }
+        }
+        notAppended = Arrays.copyOf(notAppended, notAppendedCount);
+        if (rowCount == 0) return notAppended;
+
+        int batchSize = rowCount;
+        // a row a concurrent writer got in first is dropped by the unique index
+        jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                int row = rows[i];
+                ps.setLong(1, prices.itemId(row));
+                ps.setLong(2, prices.price(row));
+                ps.setObject(3, recordedAt);
+                ps.setString(4, source);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batchSize;
+            }
+        });
+        return notAppended;
+    }
+}
@@ -0,0 +1,96 @@
+package com.crafting.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.crafting.blizz.ItemPrices;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Bulk price writes that bypass entity loading: one JDBC batch per call instead of
+ * a findById/save round trip per item.
+ */
+@Repository
+public class ItemPriceJdbcRepository {
+    // a price older than the stored one (e.g. a replayed dump) leaves the row as it is
+    private static final String UPDATE_CURRENT_PRICE_SQL =
+        "UPDATE items SET"
+            + " current_price = CASE WHEN current_price_recorded_at IS NULL OR current_price_recorded_at <= ?"
+            + "   THEN ? ELSE current_price END,"
+            + " current_price_recorded_at = CASE WHEN current_price_recorded_at IS NULL"
+            + "   OR current_price_recorded_at <= ? THEN ? ELSE current_price_recorded_at END"
+            + " WHERE id = ?";
+
+    private static final String SELECT_CURRENT_PRICES_SQL =
+        "SELECT id, current_price FROM items WHERE current_price IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public interface PriceConsumer {
+        void accept(long itemId, long price);
+    }
+
+    public ItemPriceJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sets current_price and current_price_recorded_at for every priced item in a
+     * single transaction. Items whose current price was recorded later keep it.
+     * @param prices computed prices
+     * @param recordedAt timestamp to store with the prices
+     * @return how many rows were updated and which items were missing
+     */
+    @Transactional
+    public PriceWriteResult updateCurrentPrices(ItemPrices prices, OffsetDateTime recordedAt) {
+        if (prices.isEmpty()) {
+            return new PriceWriteResult(0, new int[0]);
+        }
+        int[] rowCounts = jdbcTemplate.batchUpdate(UPDATE_CURRENT_PRICE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setObject(1, recordedAt);
+                ps.setLong(2, prices.price(i));
+                ps.setObject(3, recordedAt);
+                ps.setObject(4, recordedAt);
+                ps.setLong(5, prices.itemId(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return prices.size();
+            }
+        });
+
+        int updated = 0;
+        int[] missing = new int[rowCounts.length];
+        int missingCount = 0;
+        for (int i = 0; i < rowCounts.length; i++) {
+            // drivers may report SUCCESS_NO_INFO for batched statements
+            if (rowCounts[i] > 0 || rowCounts[i] == Statement.SUCCESS_NO_INFO) {
+                updated++;
+            } else {
+                missing[missingCount++] = prices.itemId(i);
+            }
+        }
+        return new PriceWriteResult(updated, Arrays.copyOf(missing, missingCount));
+    }
+
+    /**
+     * Streams the current price of every priced item, without building entities.
+     * @param consumer receives item ID and price in copper
+     */
+    public void forEachCurrentPrice(PriceConsumer consumer) {
+        jdbcTemplate.query(SELECT_CURRENT_PRICES_SQL, rs -> {
+            consumer.accept(rs.getLong(1), rs.getLong(2));
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package com.crafting.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.crafting.blizz.ItemPrices;
+
+/**
+ * Latest price per item and fetch target, written as one batched upsert per fetch.
+ */
+@Repository
+public class ItemRegionPriceJdbcRepository {
+    // the EXISTS guard turns unknown items into a 0 row count instead of a FK error;
+    // an older price (e.g. a replayed dump) keeps the stored one but still counts as written
+    private static final String UPSERT_SQL =
+        "INSERT INTO item_region_prices AS p (item_id, source, price, recorded_at)"
+            + " SELECT ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM items WHERE id = ?)"
+            + " ON CONFLICT (item_id, source) DO UPDATE SET"
+            + " price = CASE WHEN EXCLUDED.recorded_at >= p.recorded_at THEN EXCLUDED.price ELSE p.price END,"
+            + " recorded_at = GREATEST(p.recorded_at, EXCLUDED.recorded_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemRegionPriceJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Stores the prices of one target, keeping any stored price that is newer.
+     * @param prices computed prices
+     * @param source fetch target key
+     * @param recordedAt timestamp of the fetch
+     * @return how many rows were written and which items were missing
+     */
+    public PriceWriteResult upsertAll(ItemPrices prices, String source, OffsetDateTime recordedAt) {
+        if (prices.isEmpty()) {
+            return new PriceWriteResult(0, new int[0]);
+        }
+        int[] rowCounts = jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, prices.itemId(i));
+                ps.setString(2, source);
+                ps.setLong(3, prices.price(i));
+                ps.setObject(4, recordedAt);
+                ps.setLong(5, prices.itemId(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return prices.size();
+            }
+        });
+
+        int written = 0;
+        int[] missing = new int[rowCounts.length];
+        int missingCount = 0;
+        for (int i = 0; i < rowCounts.length; i++) {
+            if (rowCounts[i] > 0 || rowCounts[i] == Statement.SUCCESS_NO_INFO) {
+                written++;
+            } else {
+                missing[missingCount++] = prices.itemId(i);
+            }
+        }
+        return new PriceWriteResult(written, Arrays.copyOf(missing, missingCount));
+    }
+}
@@ -1,9 +1,17 @@
 package com.crafting.repository;
 
 import com.crafting.model.Item;
+import com.crafting.model.dto.ItemDTO;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.Query;
 
 @Repository
@@ -12,4 +20,43 @@ public interface ItemRepository extends JpaRepository<Item, Long>{
     List<Item> findAllById(Iterable<Long> id);
     @Query("SELECT i.id FROM Item i")
     List<Long> findAllIds();
+
+    // read model for the item endpoints: one join, no entities or proxies
+    @Query("""
+        SELECT new com.crafting.model.dto.ItemDTO(i.id, i.name, p.id, p.name, i.quality,
+            i.finishingIngredient, i.currentPrice, i.currentPriceRecordedAt)
+        FROM Item i LEFT JOIN i.profession p
+        ORDER BY i.id""")
+    List<ItemDTO> findAllDtos();
+
+    @Query("""
+        SELECT new com.crafting.model.dto.ItemDTO(i.id, i.name, p.id, p.name, i.quality,
+            i.finishingIngredient, i.currentPrice, i.currentPriceRecordedAt)
+        FROM Item i LEFT JOIN i.profession p
+        WHERE i.id IN :ids""")
+    List<ItemDTO> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // keyset page: seeks past afterId on the primary key instead of skipping rows
+    @Query("""
+        SELECT new com.crafting.model.dto.ItemDTO(i.id, i.name, p.id, p.name, i.quality,
+            i.finishingIngredient, i.currentPrice, i.currentPriceRecordedAt)
+        FROM Item i LEFT JOIN i.profession p
+        WHERE i.id > :afterId
+        ORDER BY i.id""")
+    List<ItemDTO> findDtosAfter(@Param("afterId") long afterId, Limit limit);
+
+    // cursor over all items; must be consumed and closed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        SELECT new com.crafting.model.dto.ItemDTO(i.id, i.name, p.id, p.name, i.quality,
+            i.finishingIngredient, i.currentPrice, i.currentPriceRecordedAt)
+        FROM Item i LEFT JOIN i.profession p
+        ORDER BY i.id""")
+    Stream<ItemDTO> streamAllDtos();
+
+    // recipes reference their items without cascading, so a used item cannot be deleted
+    @Query(value = """
+        SELECT EXISTS (SELECT 1 FROM recipe_ingredients WHERE item_id = :id)
+            OR EXISTS (SELECT 1 FROM recipes WHERE output_item_id = :id)""", nativeQuery = true)
+    boolean isUsedByRecipes(@Param("id") long id);
 }
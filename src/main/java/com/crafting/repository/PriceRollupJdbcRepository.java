@@ -0,0 +1,139 @@
+package com.crafting.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.crafting.blizz.ItemPrices;
+import com.crafting.model.PriceResolution;
+import com.crafting.model.dto.PricePointDTO;
+
+/**
+ * Incrementally maintained hourly and daily OHLC rollups of the price history,
+ * plus the chart reads over history and rollups.
+ */
+@Repository
+public class PriceRollupJdbcRepository {
+    private static final String UPSERT_SQL =
+        "INSERT INTO %s AS r (item_id, bucket_start, open_price, high_price, low_price, close_price,"
+            + " price_sum, sample_count, first_recorded_at, last_recorded_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, 1, ?, ?)"
+            + " ON CONFLICT (item_id, bucket_start) DO UPDATE SET"
+            + " open_price = CASE WHEN EXCLUDED.first_recorded_at < r.first_recorded_at"
+            + "   THEN EXCLUDED.open_price ELSE r.open_price END,"
+            + " high_price = GREATEST(r.high_price, EXCLUDED.high_price),"
+            + " low_price = LEAST(r.low_price, EXCLUDED.low_price),"
+            + " close_price = CASE WHEN EXCLUDED.last_recorded_at >= r.last_recorded_at"
+            + "   THEN EXCLUDED.close_price ELSE r.close_price END,"
+            + " price_sum = r.price_sum + EXCLUDED.price_sum,"
+            + " sample_count = r.sample_count + 1,"
+            + " first_recorded_at = LEAST(r.first_recorded_at, EXCLUDED.first_recorded_at),"
+            + " last_recorded_at = GREATEST(r.last_recorded_at, EXCLUDED.last_recorded_at)";
+
+    private static final String SELECT_ROLLUP_SQL =
+        "SELECT bucket_start, open_price, high_price, low_price, close_price, price_sum, sample_count"
+            + " FROM %s WHERE item_id = ? AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start";
+
+    // history holds every target; the rollups only the primary one, which RAW has to match
+    private static final String SELECT_RAW_SQL =
+        "SELECT recorded_at, price FROM item_price_history"
+            + " WHERE item_id = ? AND source = ? AND recorded_at >= ? AND recorded_at < ? ORDER BY recorded_at";
+
+    private static final RowMapper<PricePointDTO> ROLLUP_MAPPER = (ResultSet rs, int rowNum) -> {
+        int samples = rs.getInt("sample_count");
+        return new PricePointDTO(
+            rs.getObject("bucket_start", OffsetDateTime.class),
+            rs.getLong("open_price"),
+            rs.getLong("high_price"),
+            rs.getLong("low_price"),
+            rs.getLong("close_price"),
+            rs.getLong("price_sum") / Math.max(1, samples),
+            samples);
+    };
+
+    private static final RowMapper<PricePointDTO> RAW_MAPPER = (ResultSet rs, int rowNum) -> {
+        long price = rs.getLong("price");
+        return new PricePointDTO(rs.getObject("recorded_at", OffsetDateTime.class),
+            price, price, price, price, price, 1);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PriceRollupJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Folds one fetch's prices into the hourly and daily buckets they fall in.
+     * @param prices computed prices
+     * @param skippedItemIds items to leave out, e.g. ones missing from the items table or
+     *                       whose history row for this fetch already existed
+     * @param recordedAt timestamp of the fetch
+     */
+    public void upsertAll(ItemPrices prices, int[] skippedItemIds, OffsetDateTime recordedAt) {
+        int[] sortedSkipped = skippedItemIds.clone();
+        Arrays.sort(sortedSkipped);
+        int[] rows = new int[prices.size()];
+        int rowCount = 0;
+        for (int i = 0; i < prices.size(); i++) {
+            if (Arrays.binarySearch(sortedSkipped, prices.itemId(i)) < 0) {
+                rows[rowCount++] = i;
+            }
+        }
+        if (rowCount == 0) return;
+
+        OffsetDateTime utc = recordedAt.withOffsetSameInstant(ZoneOffset.UTC);
+        upsert("item_price_rollup_hourly", utc.truncatedTo(ChronoUnit.HOURS), prices, rows, rowCount, utc);
+        upsert("item_price_rollup_daily", utc.truncatedTo(ChronoUnit.DAYS), prices, rows, rowCount, utc);
+    }
+
+    private void upsert(String table, OffsetDateTime bucketStart, ItemPrices prices,
+                        int[] rows, int rowCount, OffsetDateTime recordedAt) {
+        jdbcTemplate.batchUpdate(String.format(UPSERT_SQL, table), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                int row = rows[i];
+                long price = prices.price(row);
+                ps.setLong(1, prices.itemId(row));
+                ps.setObject(2, bucketStart);
+                ps.setLong(3, price);
+                ps.setLong(4, price);
+                ps.setLong(5, price);
+                ps.setLong(6, price);
+                ps.setLong(7, price);
+                ps.setObject(8, recordedAt);
+                ps.setObject(9, recordedAt);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rowCount;
+            }
+        });
+    }
+
+    /**
+     * Reads chart points for an item in [from, to) at the given resolution.
+     * @param source fetch target the rollups are fed from; raw samples of other targets are left out
+     */
+    public List<PricePointDTO> findPoints(long itemId, String source, PriceResolution resolution,
+                                          OffsetDateTime from, OffsetDateTime to) {
+        return switch (resolution) {
+            case RAW -> jdbcTemplate.query(SELECT_RAW_SQL, RAW_MAPPER, itemId, source, from, to);
+            case HOURLY -> jdbcTemplate.query(
+                String.format(SELECT_ROLLUP_SQL, "item_price_rollup_hourly"), ROLLUP_MAPPER, itemId, from, to);
+            case DAILY -> jdbcTemplate.query(
+                String.format(SELECT_ROLLUP_SQL, "item_price_rollup_daily"), ROLLUP_MAPPER, itemId, from, to);
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.crafting.repository;
+
+/**
+ * Outcome of a bulk price write.
+ * @param updated number of item rows whose price was written
+ * @param missingItemIds priced item IDs that have no row in the items table
+ */
+public record PriceWriteResult(int updated, int[] missingItemIds) {
+
+    public int missing() {
+        return missingItemIds.length;
+    }
+}
@@ -0,0 +1,35 @@
+package com.crafting.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.crafting.model.RecipeGraph;
+
+/**
+ * Loads the whole recipe graph with two plain scans, straight into primitive arrays.
+ */
+@Repository
+public class RecipeGraphJdbcRepository {
+    private static final String RECIPES_SQL =
+        "SELECT id, output_item_id, output_quantity, profession_id, name FROM recipes";
+    private static final String INGREDIENTS_SQL =
+        "SELECT recipe_id, item_id, quantity FROM recipe_ingredients";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RecipeGraphJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public RecipeGraph loadGraph() {
+        RecipeGraph.Builder builder = new RecipeGraph.Builder();
+        jdbcTemplate.query(RECIPES_SQL, rs -> {
+            // getInt maps a NULL profession to 0, i.e. NO_PROFESSION
+            builder.addRecipe(rs.getLong(1), rs.getLong(2), rs.getFloat(3), rs.getInt(4), rs.getString(5));
+        });
+        jdbcTemplate.query(INGREDIENTS_SQL, rs -> {
+            builder.addIngredient(rs.getLong(1), rs.getLong(2), rs.getInt(3));
+        });
+        return builder.build();
+    }
+}
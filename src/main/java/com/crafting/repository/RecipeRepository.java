@@ -1,9 +1,18 @@
 package com.crafting.repository;
 
 import com.crafting.model.Recipe;
+import com.crafting.model.dto.RecipeDTO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, Long>{
+    @Query("""
+        SELECT new com.crafting.model.dto.RecipeDTO(r.id, r.name, o.id, o.name, p.id, p.name, r.outputQuantity)
+        FROM Recipe r JOIN r.outputItem o LEFT JOIN r.profession p
+        ORDER BY r.id""")
+    List<RecipeDTO> findAllDtos();
 }
@@ -0,0 +1,198 @@
+package com.crafting.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import com.crafting.model.RecipeGraph;
+
+/**
+ * Computes crafting costs and profits over a {@link RecipeGraph}.
+ *
+ * The unit cost of an item is the cheaper of buying it at its market price and
+ * crafting it with its cheapest recipe, where the recipe's cost is the sum of its
+ * ingredients' unit costs divided by its output quantity. Item costs are memoized
+ * per item. When the walk meets an item that is still being resolved (a cycle), that
+ * occurrence can only be bought, which is what breaks the cycle. A recipe without
+ * ingredients has an unknown cost, like one with an unpriced ingredient.
+ *
+ * Market price changes are recorded with {@link #setMarketPrice(long, long)}; the
+ * next {@link #recomputeChanged()} only re-resolves the changed items, the items
+ * crafted from them, and the recipes touching those. Not thread-safe; callers
+ * publish {@link #snapshot()} results instead of sharing the calculator.
+ */
+public class CraftingCostCalculator {
+    public static final long NO_PRICE = -1;
+
+    private static final byte UNRESOLVED = 0;
+    private static final byte RESOLVING = 1;
+    private static final byte RESOLVED = 2;
+
+    private final RecipeGraph graph;
+    private final long[] marketPrice;
+    private final double[] itemCost;
+    private final int[] bestRecipe;
+    private final byte[] state;
+    private final double[] recipeCost;
+    private final double[] recipeValue;
+    private final BitSet changedItems = new BitSet();
+
+    public CraftingCostCalculator(RecipeGraph graph) {
+        this.graph = graph;
+        int items = graph.itemCount();
+        int recipes = graph.recipeCount();
+        marketPrice = new long[items];
+        Arrays.fill(marketPrice, NO_PRICE);
+        itemCost = new double[items];
+        bestRecipe = new int[items];
+        state = new byte[items];
+        recipeCost = new double[recipes];
+        recipeValue = new double[recipes];
+    }
+
+    public RecipeGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Records the market price of an item for the next recompute.
+     * @param itemId item ID
+     * @param price price in copper, or {@link #NO_PRICE}
+     * @return true if the item is part of the graph and its price changed
+     */
+    public boolean setMarketPrice(long itemId, long price) {
+        int item = graph.itemIndex(itemId);
+        if (item < 0 || marketPrice[item] == price) {
+            return false;
+        }
+        marketPrice[item] = price;
+        changedItems.set(item);
+        return true;
+    }
+
+    /**
+     * Resolves every item and evaluates every recipe.
+     * @return number of recipes evaluated
+     */
+    public int recomputeAll() {
+        changedItems.clear();
+        Arrays.fill(state, UNRESOLVED);
+        for (int item = 0; item < graph.itemCount(); item++) {
+            resolve(item);
+        }
+        for (int recipe = 0; recipe < graph.recipeCount(); recipe++) {
+            evaluate(recipe);
+        }
+        return graph.recipeCount();
+    }
+
+    /**
+     * Re-resolves only what depends on prices changed since the last recompute.
+     * @return number of recipes re-evaluated
+     */
+    public int recomputeChanged() {
+        if (changedItems.isEmpty()) {
+            return 0;
+        }
+        // changed items plus everything crafted from them, transitively
+        BitSet affected = (BitSet) changedItems.clone();
+        int[] queue = new int[graph.itemCount()];
+        int head = 0;
+        int tail = 0;
+        for (int item = affected.nextSetBit(0); item >= 0; item = affected.nextSetBit(item + 1)) {
+            queue[tail++] = item;
+        }
+        while (head < tail) {
+            int item = queue[head++];
+            for (int k = graph.usedByStart(item); k < graph.usedByEnd(item); k++) {
+                int output = graph.outputItem(graph.usedBy(k));
+                if (!affected.get(output)) {
+                    affected.set(output);
+                    queue[tail++] = output;
+                }
+            }
+        }
+        changedItems.clear();
+
+        for (int item = affected.nextSetBit(0); item >= 0; item = affected.nextSetBit(item + 1)) {
+            state[item] = UNRESOLVED;
+        }
+        for (int item = affected.nextSetBit(0); item >= 0; item = affected.nextSetBit(item + 1)) {
+            resolve(item);
+        }
+        // recipes consuming or producing an affected item
+        BitSet recipes = new BitSet(graph.recipeCount());
+        for (int item = affected.nextSetBit(0); item >= 0; item = affected.nextSetBit(item + 1)) {
+            for (int k = graph.usedByStart(item); k < graph.usedByEnd(item); k++) {
+                recipes.set(graph.usedBy(k));
+            }
+            for (int k = graph.producedByStart(item); k < graph.producedByEnd(item); k++) {
+                recipes.set(graph.producedBy(k));
+            }
+        }
+        for (int recipe = recipes.nextSetBit(0); recipe >= 0; recipe = recipes.nextSetBit(recipe + 1)) {
+            evaluate(recipe);
+        }
+        return recipes.cardinality();
+    }
+
+    private double resolve(int item) {
+        if (state[item] == RESOLVED) {
+            return itemCost[item];
+        }
+        if (state[item] == RESOLVING) {
+            // cycle: this occurrence has to be bought
+            return buyCost(item);
+        }
+        state[item] = RESOLVING;
+        double best = buyCost(item);
+        int bestSource = -1;
+        for (int k = graph.producedByStart(item); k < graph.producedByEnd(item); k++) {
+            int recipe = graph.producedBy(k);
+            double unitCost = craftCost(recipe) / graph.outputQuantity(recipe);
+            if (unitCost < best) {
+                best = unitCost;
+                bestSource = recipe;
+            }
+        }
+        itemCost[item] = best;
+        bestRecipe[item] = bestSource;
+        state[item] = RESOLVED;
+        return best;
+    }
+
+    private double craftCost(int recipe) {
+        if (graph.ingredientStart(recipe) == graph.ingredientEnd(recipe)) {
+            // no known ingredients (e.g. none could be migrated): cost unknown, not free
+            return Double.POSITIVE_INFINITY;
+        }
+        double cost = 0;
+        for (int k = graph.ingredientStart(recipe); k < graph.ingredientEnd(recipe); k++) {
+            cost += graph.ingredientQuantity(k) * resolve(graph.ingredientItem(k));
+            if (cost == Double.POSITIVE_INFINITY) {
+                break;
+            }
+        }
+        return cost;
+    }
+
+    private void evaluate(int recipe) {
+        recipeCost[recipe] = craftCost(recipe);
+        long outputPrice = marketPrice[graph.outputItem(recipe)];
+        recipeValue[recipe] = outputPrice == NO_PRICE
+            ? Double.NaN
+            : (double) outputPrice * graph.outputQuantity(recipe);
+    }
+
+    private double buyCost(int item) {
+        long price = marketPrice[item];
+        return price == NO_PRICE ? Double.POSITIVE_INFINITY : price;
+    }
+
+    /**
+     * @return immutable copy of the current results
+     */
+    public CraftingCosts snapshot() {
+        return new CraftingCosts(graph, marketPrice.clone(), itemCost.clone(), bestRecipe.clone(),
+            recipeCost.clone(), recipeValue.clone());
+    }
+}
@@ -0,0 +1,152 @@
+package com.crafting.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+
+import com.crafting.blizz.ItemPrices;
+import com.crafting.model.RecipeGraph;
+import com.crafting.model.dto.IngredientCostDTO;
+import com.crafting.model.dto.RecipeCostDTO;
+import com.crafting.model.dto.RecipeProfitDTO;
+import com.crafting.repository.ItemPriceJdbcRepository;
+
+/**
+ * Keeps crafting costs and profits of all recipes up to date. Costs are computed
+ * in full when first needed or when the recipe graph was reloaded; after that each
+ * fetch only re-evaluates the recipes its price changes reach. Readers get an
+ * immutable {@link CraftingCosts} snapshot.
+ */
+@Service
+public class CraftingCostService {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(CraftingCostService.class);
+
+    private final RecipeGraphService recipeGraphService;
+    private final ItemPriceJdbcRepository itemPriceJdbcRepository;
+
+    // guarded by this
+    private CraftingCostCalculator calculator;
+    private volatile CraftingCosts costs;
+
+    public CraftingCostService(RecipeGraphService recipeGraphService,
+                               ItemPriceJdbcRepository itemPriceJdbcRepository) {
+        this.recipeGraphService = recipeGraphService;
+        this.itemPriceJdbcRepository = itemPriceJdbcRepository;
+    }
+
+    public CraftingCosts getCosts() {
+        CraftingCosts current = costs;
+        if (current != null && current.getGraph() == recipeGraphService.getGraph()) {
+            return current;
+        }
+        synchronized (this) {
+            current = costs;
+            if (current != null && current.getGraph() == recipeGraphService.getGraph()) {
+                return current;
+            }
+            return recomputeAll();
+        }
+    }
+
+    /**
+     * Rebuilds the calculator from the current recipe graph and item prices.
+     * @return the new costs
+     */
+    public synchronized CraftingCosts recomputeAll() {
+        long start = System.nanoTime();
+        CraftingCostCalculator rebuilt = new CraftingCostCalculator(recipeGraphService.getGraph());
+        itemPriceJdbcRepository.forEachCurrentPrice(rebuilt::setMarketPrice);
+        int evaluated = rebuilt.recomputeAll();
+        calculator = rebuilt;
+        costs = rebuilt.snapshot();
+        logger.info("Computed crafting costs of {} recipes in {} ms", evaluated,
+            (System.nanoTime() - start) / 1_000_000);
+        return costs;
+    }
+
+    /**
+     * Applies the prices of a fetch and re-evaluates only the recipes they affect.
+     * Call after the prices were persisted as items' current prices.
+     * @param prices prices written by the fetch
+     */
+    public synchronized void applyPrices(ItemPrices prices) {
+        if (calculator == null || calculator.getGraph() != recipeGraphService.getGraph()) {
+            recomputeAll();
+            return;
+        }
+        long start = System.nanoTime();
+        int changed = 0;
+        for (int i = 0; i < prices.size(); i++) {
+            if (calculator.setMarketPrice(prices.itemId(i), prices.price(i))) {
+                changed++;
+            }
+        }
+        int evaluated = calculator.recomputeChanged();
+        if (evaluated > 0) {
+            costs = calculator.snapshot();
+        }
+        logger.info("{} ingredient prices changed, re-evaluated {} of {} recipes in {} ms", changed, evaluated,
+            calculator.getGraph().recipeCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @param professionId only recipes of this profession, or null for all
+     * @param limit maximum number of recipes
+     * @return most profitable recipes first; recipes that cannot be priced are left out
+     */
+    public List<RecipeProfitDTO> topProfits(Integer professionId, int limit) {
+        CraftingCosts snapshot = getCosts();
+        RecipeGraph graph = snapshot.getGraph();
+        int[] candidates = new int[graph.recipeCount()];
+        int count = 0;
+        for (int r = 0; r < graph.recipeCount(); r++) {
+            if (!Double.isNaN(snapshot.profitValue(r))
+                && (professionId == null || graph.professionId(r) == professionId)) {
+                candidates[count++] = r;
+            }
+        }
+        Integer[] ranked = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            ranked[i] = candidates[i];
+        }
+        Arrays.sort(ranked, (a, b) -> Double.compare(snapshot.profitValue(b), snapshot.profitValue(a)));
+        List<RecipeProfitDTO> result = new ArrayList<>(Math.min(limit, count));
+        for (int i = 0; i < count && i < limit; i++) {
+            result.add(toProfitDTO(snapshot, ranked[i]));
+        }
+        return result;
+    }
+
+    /**
+     * @return cost breakdown of the recipe, or empty if it is unknown
+     */
+    public Optional<RecipeCostDTO> getRecipeCost(long recipeId) {
+        CraftingCosts snapshot = getCosts();
+        RecipeGraph graph = snapshot.getGraph();
+        int recipe = graph.recipeIndex(recipeId);
+        if (recipe < 0) {
+            return Optional.empty();
+        }
+        List<IngredientCostDTO> ingredients = new ArrayList<>();
+        for (int k = graph.ingredientStart(recipe); k < graph.ingredientEnd(recipe); k++) {
+            int item = graph.ingredientItem(k);
+            int crafted = snapshot.bestRecipe(item);
+            ingredients.add(new IngredientCostDTO(graph.itemId(item), graph.ingredientQuantity(k),
+                snapshot.marketPrice(item), snapshot.itemCost(item),
+                crafted >= 0 ? graph.recipeId(crafted) : null));
+        }
+        return Optional.of(new RecipeCostDTO(toProfitDTO(snapshot, recipe), ingredients));
+    }
+
+    static RecipeProfitDTO toProfitDTO(CraftingCosts snapshot, int recipe) {
+        RecipeGraph graph = snapshot.getGraph();
+        int professionId = graph.professionId(recipe);
+        return new RecipeProfitDTO(graph.recipeId(recipe), graph.recipeName(recipe),
+            professionId == RecipeGraph.NO_PROFESSION ? null : professionId,
+            graph.itemId(graph.outputItem(recipe)), graph.outputQuantity(recipe),
+            snapshot.craftCost(recipe), snapshot.outputValue(recipe), snapshot.profit(recipe));
+    }
+}
@@ -0,0 +1,89 @@
+package com.crafting.service;
+
+import com.crafting.model.RecipeGraph;
+
+/**
+ * Immutable results of one {@link CraftingCostCalculator} run, indexed like its
+ * {@link RecipeGraph}. Amounts are in copper; unknown amounts (nothing to buy and
+ * no way to craft, or no market price for the output) are returned as null.
+ */
+public final class CraftingCosts {
+    public static final CraftingCosts EMPTY = new CraftingCostCalculator(RecipeGraph.EMPTY).snapshot();
+
+    private final RecipeGraph graph;
+    private final long[] marketPrice;
+    private final double[] itemCost;
+    private final int[] bestRecipe;
+    private final double[] recipeCost;
+    private final double[] recipeValue;
+
+    CraftingCosts(RecipeGraph graph, long[] marketPrice, double[] itemCost, int[] bestRecipe,
+                  double[] recipeCost, double[] recipeValue) {
+        this.graph = graph;
+        this.marketPrice = marketPrice;
+        this.itemCost = itemCost;
+        this.bestRecipe = bestRecipe;
+        this.recipeCost = recipeCost;
+        this.recipeValue = recipeValue;
+    }
+
+    public RecipeGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return market price of the item, or null if it has none
+     */
+    public Long marketPrice(int item) {
+        long price = marketPrice[item];
+        return price == CraftingCostCalculator.NO_PRICE ? null : price;
+    }
+
+    /**
+     * @return cheapest unit cost of the item, bought or crafted
+     */
+    public Long itemCost(int item) {
+        return toCopper(itemCost[item]);
+    }
+
+    /**
+     * @return index of the recipe the item is best crafted with, or -1 if buying is cheaper
+     */
+    public int bestRecipe(int item) {
+        return bestRecipe[item];
+    }
+
+    /**
+     * @return cost of one craft of the recipe with each ingredient bought or crafted, whichever is cheaper
+     */
+    public Long craftCost(int recipe) {
+        return toCopper(recipeCost[recipe]);
+    }
+
+    /**
+     * @return market value of one craft's output: output price times output quantity
+     */
+    public Long outputValue(int recipe) {
+        return toCopper(recipeValue[recipe]);
+    }
+
+    /**
+     * @return output value minus craft cost, or null if either is unknown
+     */
+    public Long profit(int recipe) {
+        return toCopper(profitValue(recipe));
+    }
+
+    /**
+     * Profit as a raw double for ranking; NaN when unknown.
+     */
+    public double profitValue(int recipe) {
+        double cost = recipeCost[recipe];
+        double value = recipeValue[recipe];
+        return Double.isInfinite(cost) || Double.isNaN(value) ? Double.NaN : value - cost;
+    }
+
+    private static Long toCopper(double amount) {
+        return Double.isNaN(amount) || Double.isInfinite(amount) ? null : Math.round(amount);
+    }
+}
@@ -0,0 +1,30 @@
+package com.crafting.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Version of the item and price data served to clients, used as a strong ETag.
+ * It is bumped after every committed item write and every fetch that changed
+ * prices. Read the ETag before reading the data so a response can only ever be
+ * tagged older than its content, never newer.
+ */
+@Component
+public class DataVersion {
+    // distinguishes restarts, so a version from an earlier run never matches
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public String etag() {
+        return "\"" + epoch + "-" + version.get() + "\"";
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+}
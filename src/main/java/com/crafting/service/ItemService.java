@@ -0,0 +1,145 @@
+package com.crafting.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.crafting.config.CacheConfig;
+import com.crafting.model.Item;
+import com.crafting.model.dto.ItemDTO;
+import com.crafting.model.dto.ItemPageDTO;
+import com.crafting.repository.ItemRepository;
+
+/**
+ * Item reads behind a read-through cache. Writes through this service evict
+ * the affected entries and then bump the {@link DataVersion}, so a client never
+ * gets the new ETag with content still served from the cache; {@link #evictAll()}
+ * is called once a fetch has committed new prices.
+ */
+@Service
+public class ItemService {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ItemService.class);
+
+    private final ItemRepository itemRepository;
+    private final Cache itemsCache;
+    private final Cache itemByIdCache;
+    private final DataVersion dataVersion;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ItemService(ItemRepository itemRepository, CacheManager cacheManager, DataVersion dataVersion,
+                       PlatformTransactionManager transactionManager) {
+        this.itemRepository = itemRepository;
+        this.dataVersion = dataVersion;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.itemsCache = cacheManager.getCache(CacheConfig.ITEMS);
+        this.itemByIdCache = cacheManager.getCache(CacheConfig.ITEM_BY_ID);
+    }
+
+    /**
+     * @return all items ordered by ID
+     */
+    @Cacheable(CacheConfig.ITEMS)
+    public List<ItemDTO> findAll() {
+        return itemRepository.findAllDtos();
+    }
+
+    /**
+     * Looks the items up one by one in the cache and loads all misses with a
+     * single query.
+     * @param ids item IDs to look up
+     * @return items in the order of ids, null where an ID does not exist
+     */
+    public List<ItemDTO> findOrdered(List<Long> ids) {
+        Map<Long, ItemDTO> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            ItemDTO cached = itemByIdCache.get(id, ItemDTO.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (ItemDTO item : itemRepository.findDtosByIdIn(misses)) {
+                itemByIdCache.put(item.getId(), item);
+                found.put(item.getId(), item);
+            }
+            logger.debug("Item cache: {} hits, {} misses", ids.size() - misses.size(), misses.size());
+        }
+        return ids.stream().map(found::get).toList();
+    }
+
+    /**
+     * @param afterId last ID of the previous page, 0 for the first page
+     * @param limit page size
+     * @return up to limit items with IDs above afterId, ordered by ID
+     */
+    public ItemPageDTO findPage(long afterId, int limit) {
+        List<ItemDTO> items = itemRepository.findDtosAfter(afterId, Limit.of(limit));
+        Long nextAfterId = items.size() == limit ? items.get(items.size() - 1).getId() : null;
+        return new ItemPageDTO(items, nextAfterId);
+    }
+
+    /**
+     * Hands every item to the consumer straight off a database cursor, in ID order,
+     * without collecting them. Runs in its own read-only transaction, which the
+     * cursor needs to fetch in batches.
+     * @param consumer receives each item; may throw to abort
+     * @return number of items streamed
+     */
+    public long forEachItem(Consumer<ItemDTO> consumer) {
+        Long streamed = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (Stream<ItemDTO> items = itemRepository.streamAllDtos()) {
+                Iterator<ItemDTO> it = items.iterator();
+                while (it.hasNext()) {
+                    consumer.accept(it.next());
+                    count++;
+                }
+            }
+            return count;
+        });
+        return streamed == null ? 0 : streamed;
+    }
+
+    public Item save(Item item) {
+        Item saved = itemRepository.save(item);
+        // evicted here rather than by @CacheEvict, which would only run after the bump
+        itemsCache.clear();
+        itemByIdCache.evict(item.getId());
+        dataVersion.bump();
+        return saved;
+    }
+
+    public void deleteById(Long id) {
+        itemRepository.deleteById(id);
+        itemsCache.clear();
+        itemByIdCache.evict(id);
+        dataVersion.bump();
+    }
+
+    /**
+     * Drops all cached items and bumps the data version, e.g. after a fetch
+     * updated current prices.
+     */
+    public void evictAll() {
+        itemsCache.clear();
+        itemByIdCache.clear();
+        dataVersion.bump();
+        logger.debug("Item caches evicted, data version {}", dataVersion.current());
+    }
+}
@@ -0,0 +1,120 @@
+package com.crafting.service;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.crafting.blizz.ItemPrices;
+import com.crafting.repository.PriceWriteResult;
+
+/**
+ * Writes the prices of one fetch batch by batch on its own virtual thread, each
+ * batch in its own transaction, while the caller keeps pricing. Batches wait in
+ * a bounded queue and {@link #submit(ItemPrices)} blocks while it is full, so a
+ * slow database holds the producer back instead of letting batches pile up.
+ */
+public class PriceBatchWriter implements AutoCloseable {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PriceBatchWriter.class);
+    private static final ItemPrices END = new ItemPrices(0);
+
+    private final PricePersistenceService pricePersistenceService;
+    private final OffsetDateTime recordedAt;
+    private final String source;
+    private final boolean primary;
+    private final BlockingQueue<ItemPrices> queue;
+    private final Thread writer;
+    private volatile Exception failure;
+    private boolean ended;
+
+    // only touched by the writer thread until it has been joined
+    private int updated;
+    private int[] missing = new int[0];
+    private int batches;
+
+    /**
+     * Starts the writer thread.
+     * @param pricePersistenceService service each batch is persisted with
+     * @param recordedAt timestamp of the fetch
+     * @param source fetch target key
+     * @param primary whether the target feeds items.current_price and the rollups
+     * @param queueCapacity batches allowed to wait for the database
+     */
+    public PriceBatchWriter(PricePersistenceService pricePersistenceService, OffsetDateTime recordedAt,
+                            String source, boolean primary, int queueCapacity) {
+        this.pricePersistenceService = pricePersistenceService;
+        this.recordedAt = recordedAt;
+        this.source = source;
+        this.primary = primary;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.writer = Thread.ofVirtual().name("price-writer-" + source).start(this::drain);
+    }
+
+    private void drain() {
+        try {
+            ItemPrices batch;
+            while ((batch = queue.take()) != END) {
+                PriceWriteResult written = pricePersistenceService.persist(batch, recordedAt, source, primary);
+                updated += written.updated();
+                if (written.missing() > 0) {
+                    int from = missing.length;
+                    missing = Arrays.copyOf(missing, from + written.missing());
+                    System.arraycopy(written.missingItemIds(), 0, missing, from, written.missing());
+                }
+                batches++;
+            }
+        } catch (InterruptedException e) {
+            failure = e;
+        } catch (Exception e) {
+            failure = e;
+            logger.error("Writing prices of {} failed after {} batches", source, batches, e);
+        }
+    }
+
+    /**
+     * Queues a batch, waiting while the queue is full.
+     * @throws IllegalStateException if an earlier batch failed to write
+     */
+    public void submit(ItemPrices batch) throws InterruptedException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            checkFailure();
+        }
+        checkFailure();
+    }
+
+    /**
+     * Waits until every queued batch is written.
+     * @return totals over all batches
+     * @throws IllegalStateException if a batch failed to write
+     */
+    public PriceWriteResult finish() throws InterruptedException {
+        submit(END);
+        ended = true;
+        writer.join();
+        checkFailure();
+        logger.debug("Wrote {} prices of {} in {} batches", updated, source, batches);
+        return new PriceWriteResult(updated, missing);
+    }
+
+    private void checkFailure() {
+        Exception e = failure;
+        if (e != null) {
+            throw new IllegalStateException("Writing prices of " + source + " failed", e);
+        }
+    }
+
+    /**
+     * Stops the writer if {@link #finish()} was never reached; batches still
+     * queued are dropped, the one being written completes.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        if (!ended) {
+            ended = true;
+            queue.clear();
+            queue.offer(END);
+            writer.join();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.crafting.service;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.crafting.config.HistoryConfig;
+
+/**
+ * Keeps the monthly partitions of item_price_history in shape: creates partitions
+ * ahead of time so inserts never miss one, and expires partitions older than the
+ * retention period by detaching or dropping them, which is a metadata-only change
+ * instead of a large DELETE.
+ */
+@Component
+public class PriceHistoryPartitionMaintainer {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PriceHistoryPartitionMaintainer.class);
+    private static final String PARENT_TABLE = "item_price_history";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HistoryConfig historyConfig;
+    private Boolean partitioned;
+
+    public PriceHistoryPartitionMaintainer(JdbcTemplate jdbcTemplate, HistoryConfig historyConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.historyConfig = historyConfig;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    // runs daily at 03:15
+    @Scheduled(cron = "0 15 3 * * *")
+    public void maintain() {
+        if (!isPartitioned()) {
+            logger.debug("{} is not partitioned, skipping partition maintenance", PARENT_TABLE);
+            return;
+        }
+        try {
+            YearMonth current = YearMonth.now(ZoneOffset.UTC);
+            ensurePartitions(current, current.plusMonths(historyConfig.getPartitionsAhead()));
+            expirePartitions(current.minusMonths(historyConfig.getRetentionMonths()));
+        } catch (Exception e) {
+            logger.error("Price history partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * Creates any missing monthly partitions for the given range, inclusive.
+     * Also used by snapshot replays before they backfill history for past months.
+     */
+    public synchronized void ensurePartitions(YearMonth from, YearMonth to) {
+        if (!isPartitioned()) return;
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month)
+                + " PARTITION OF " + PARENT_TABLE
+                + " FOR VALUES FROM ('" + monthStart(month) + "') TO ('" + monthStart(month.plusMonths(1)) + "')");
+        }
+    }
+
+    private synchronized void expirePartitions(YearMonth oldestKept) {
+        boolean drop = "drop".equalsIgnoreCase(historyConfig.getExpiredPartitionAction());
+        List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i"
+                + " JOIN pg_class c ON c.oid = i.inhrelid"
+                + " JOIN pg_class p ON p.oid = i.inhparent"
+                + " WHERE p.relname = ?",
+            String.class, PARENT_TABLE);
+        for (String partition : partitions) {
+            YearMonth month = parseMonth(partition);
+            if (month == null || !month.isBefore(oldestKept)) continue;
+            jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partition);
+            if (drop) {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+            }
+            logger.info("Expired price history partition {} ({})", partition, drop ? "dropped" : "detached");
+        }
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) con ->
+                con.getMetaData().getDatabaseProductName());
+            partitioned = "PostgreSQL".equalsIgnoreCase(product) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_class WHERE relname = ? AND relkind = 'p')",
+                Boolean.class, PARENT_TABLE));
+        }
+        return partitioned;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARENT_TABLE + "_" + month.format(SUFFIX_FORMAT);
+    }
+
+    private static String monthStart(YearMonth month) {
+        return month.atDay(1) + " 00:00:00+00";
+    }
+
+    private static YearMonth parseMonth(String partition) {
+        String prefix = PARENT_TABLE + "_";
+        if (!partition.startsWith(prefix)) return null;
+        try {
+            return YearMonth.parse(partition.substring(prefix.length()), SUFFIX_FORMAT);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
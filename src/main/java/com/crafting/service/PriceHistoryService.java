@@ -0,0 +1,59 @@
+package com.crafting.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.crafting.blizz.BlizzConfig;
+import com.crafting.config.HistoryConfig;
+import com.crafting.model.PriceResolution;
+import com.crafting.model.dto.PriceHistoryDTO;
+import com.crafting.model.dto.PricePointDTO;
+import com.crafting.repository.PriceRollupJdbcRepository;
+
+/**
+ * Serves price charts, picking the storage resolution that fits the requested
+ * range so long ranges read from rollups instead of raw samples. Charts show the
+ * primary target, the only one the rollups are kept for.
+ */
+@Service
+public class PriceHistoryService {
+    private final PriceRollupJdbcRepository priceRollupJdbcRepository;
+    private final HistoryConfig historyConfig;
+    private final String primaryTarget;
+
+    public PriceHistoryService(PriceRollupJdbcRepository priceRollupJdbcRepository, HistoryConfig historyConfig,
+                               BlizzConfig blizzConfig) {
+        this.priceRollupJdbcRepository = priceRollupJdbcRepository;
+        this.historyConfig = historyConfig;
+        this.primaryTarget = blizzConfig.getPrimaryTarget();
+    }
+
+    /**
+     * @param itemId item to chart
+     * @param resolution requested resolution, or null to choose automatically
+     * @param from start of the range, inclusive
+     * @param to end of the range, exclusive
+     */
+    public PriceHistoryDTO getHistory(long itemId, PriceResolution resolution,
+                                      OffsetDateTime from, OffsetDateTime to) {
+        PriceResolution chosen = resolution != null ? resolution : resolutionFor(Duration.between(from, to));
+        List<PricePointDTO> points = priceRollupJdbcRepository.findPoints(itemId, primaryTarget, chosen, from, to);
+        return new PriceHistoryDTO(itemId, chosen, from, to, points);
+    }
+
+    /**
+     * Finest resolution whose point count for the range stays within
+     * history.maxPoints; ranges too long for any of them fall back to daily.
+     */
+    PriceResolution resolutionFor(Duration range) {
+        for (PriceResolution candidate : PriceResolution.values()) {
+            if (candidate.pointsFor(range) <= historyConfig.getMaxPoints()) {
+                return candidate;
+            }
+        }
+        return PriceResolution.DAILY;
+    }
+}
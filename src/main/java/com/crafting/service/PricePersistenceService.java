@@ -0,0 +1,63 @@
+package com.crafting.service;
+
+import java.time.OffsetDateTime;
+
+import org.springframework.stereotype.Service;
+
+import com.crafting.blizz.ItemPrices;
+import com.crafting.repository.ItemPriceHistoryJdbcRepository;
+import com.crafting.repository.ItemPriceJdbcRepository;
+import com.crafting.repository.ItemRegionPriceJdbcRepository;
+import com.crafting.repository.PriceRollupJdbcRepository;
+import com.crafting.repository.PriceWriteResult;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Persists the prices of one fetch, or of one batch of it: the latest price per
+ * target, an appended history row per item, and for the primary target also the
+ * current prices on the items and the hourly/daily rollups, all in one
+ * transaction. {@link PriceBatchWriter} feeds a fetch through here batch by batch.
+ * Writing the same fetch again, e.g. replaying its dump, adds no history rows or
+ * rollup samples, and older prices never replace newer ones.
+ */
+@Service
+public class PricePersistenceService {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PricePersistenceService.class);
+
+    private final ItemPriceJdbcRepository itemPriceJdbcRepository;
+    private final ItemRegionPriceJdbcRepository itemRegionPriceJdbcRepository;
+    private final ItemPriceHistoryJdbcRepository itemPriceHistoryJdbcRepository;
+    private final PriceRollupJdbcRepository priceRollupJdbcRepository;
+
+    public PricePersistenceService(ItemPriceJdbcRepository itemPriceJdbcRepository,
+                                   ItemRegionPriceJdbcRepository itemRegionPriceJdbcRepository,
+                                   ItemPriceHistoryJdbcRepository itemPriceHistoryJdbcRepository,
+                                   PriceRollupJdbcRepository priceRollupJdbcRepository) {
+        this.itemPriceJdbcRepository = itemPriceJdbcRepository;
+        this.itemRegionPriceJdbcRepository = itemRegionPriceJdbcRepository;
+        this.itemPriceHistoryJdbcRepository = itemPriceHistoryJdbcRepository;
+        this.priceRollupJdbcRepository = priceRollupJdbcRepository;
+    }
+
+    /**
+     * @param prices computed prices
+     * @param recordedAt timestamp of the fetch
+     * @param source fetch target key, stored with the region prices and history
+     * @param primary whether the target feeds items.current_price and the rollups
+     * @return how many items were written and which were missing from the DB
+     */
+    @Transactional
+    public PriceWriteResult persist(ItemPrices prices, OffsetDateTime recordedAt, String source, boolean primary) {
+        PriceWriteResult written = itemRegionPriceJdbcRepository.upsertAll(prices, source, recordedAt);
+        // history first: only samples it did not have yet go into the rollups
+        int[] notAppended = itemPriceHistoryJdbcRepository.appendAll(
+            prices, written.missingItemIds(), recordedAt, source);
+        if (primary) {
+            itemPriceJdbcRepository.updateCurrentPrices(prices, recordedAt);
+            priceRollupJdbcRepository.upsertAll(prices, notAppended, recordedAt);
+        }
+        logger.debug("Appended {} price history rows from {}", prices.size() - notAppended.length, source);
+        return written;
+    }
+}
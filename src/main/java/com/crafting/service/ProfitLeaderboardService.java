@@ -0,0 +1,167 @@
+package com.crafting.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.crafting.config.LeaderboardConfig;
+import com.crafting.model.RecipeGraph;
+import com.crafting.model.dto.LeaderboardDTO;
+import com.crafting.model.dto.RecipeProfitDTO;
+
+/**
+ * Materialized "most profitable recipes" leaderboards, one per profession plus one
+ * across all of them. They are rebuilt once per fetch cycle from the current
+ * {@link CraftingCosts}, kept in memory, and pushed to SSE subscribers, so reading
+ * them never computes anything.
+ */
+@Service
+public class ProfitLeaderboardService {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ProfitLeaderboardService.class);
+    private static final String EVENT_NAME = "leaderboard";
+
+    private final CraftingCostService craftingCostService;
+    private final LeaderboardConfig leaderboardConfig;
+
+    private record Boards(CraftingCosts source, LeaderboardDTO all, Map<Integer, LeaderboardDTO> byProfession) {
+    }
+
+    private record Subscriber(SseEmitter emitter, Integer professionId) {
+    }
+
+    private volatile Boards boards;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public ProfitLeaderboardService(CraftingCostService craftingCostService, LeaderboardConfig leaderboardConfig) {
+        this.craftingCostService = craftingCostService;
+        this.leaderboardConfig = leaderboardConfig;
+    }
+
+    /**
+     * @param professionId profession to rank, or null for all recipes
+     * @return the leaderboard; empty for a profession without priced recipes
+     */
+    public LeaderboardDTO getLeaderboard(Integer professionId) {
+        Boards current = boards;
+        if (current == null) {
+            current = rebuild();
+        }
+        return pick(current, professionId);
+    }
+
+    /**
+     * Rebuilds the leaderboards if costs changed since the last build and pushes
+     * them to subscribers. Called when a fetch cycle has finished.
+     */
+    public void refresh() {
+        CraftingCosts costs = craftingCostService.getCosts();
+        Boards current = boards;
+        if (current != null && current.source() == costs) {
+            logger.debug("Crafting costs unchanged, leaderboards kept");
+            return;
+        }
+        Boards rebuilt = rebuild();
+        for (Subscriber subscriber : subscribers) {
+            push(subscriber, pick(rebuilt, subscriber.professionId()));
+        }
+    }
+
+    /**
+     * Opens an SSE stream that receives the leaderboard now and after every rebuild.
+     * @param professionId profession to follow, or null for all recipes
+     */
+    public SseEmitter subscribe(Integer professionId) {
+        SseEmitter emitter = new SseEmitter(Duration.ofMinutes(leaderboardConfig.getStreamTimeoutMinutes()).toMillis());
+        Subscriber subscriber = new Subscriber(emitter, professionId);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        push(subscriber, getLeaderboard(professionId));
+        logger.debug("Leaderboard subscriber added, {} connected", subscribers.size());
+        return emitter;
+    }
+
+    private void push(Subscriber subscriber, LeaderboardDTO leaderboard) {
+        try {
+            subscriber.emitter().send(SseEmitter.event().name(EVENT_NAME).data(leaderboard));
+        } catch (IOException | IllegalStateException e) {
+            // client went away; the emitter callbacks may not fire for a dead connection
+            subscribers.remove(subscriber);
+            subscriber.emitter().completeWithError(e);
+        }
+    }
+
+    private synchronized Boards rebuild() {
+        long start = System.nanoTime();
+        CraftingCosts costs = craftingCostService.getCosts();
+        RecipeGraph graph = costs.getGraph();
+        int size = Math.max(1, leaderboardConfig.getSize());
+
+        // bounded min-heaps: the root is the least profitable recipe still on the board
+        PriorityQueue<Integer> all = newHeap(costs, size);
+        Map<Integer, PriorityQueue<Integer>> byProfession = new HashMap<>();
+        for (int r = 0; r < graph.recipeCount(); r++) {
+            if (Double.isNaN(costs.profitValue(r))) {
+                continue;
+            }
+            offer(all, costs, r, size);
+            int professionId = graph.professionId(r);
+            if (professionId != RecipeGraph.NO_PROFESSION) {
+                offer(byProfession.computeIfAbsent(professionId, p -> newHeap(costs, size)), costs, r, size);
+            }
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        Map<Integer, LeaderboardDTO> professionBoards = new HashMap<>();
+        byProfession.forEach((professionId, heap) ->
+            professionBoards.put(professionId, new LeaderboardDTO(professionId, now, drain(heap, costs))));
+        Boards rebuilt = new Boards(costs, new LeaderboardDTO(null, now, drain(all, costs)),
+            Collections.unmodifiableMap(professionBoards));
+        boards = rebuilt;
+        logger.info("Rebuilt {} profession leaderboards in {} ms", professionBoards.size(),
+            (System.nanoTime() - start) / 1_000_000);
+        return rebuilt;
+    }
+
+    private static PriorityQueue<Integer> newHeap(CraftingCosts costs, int size) {
+        return new PriorityQueue<>(size + 1, (a, b) -> Double.compare(costs.profitValue(a), costs.profitValue(b)));
+    }
+
+    private static void offer(PriorityQueue<Integer> heap, CraftingCosts costs, int recipe, int size) {
+        if (heap.size() < size) {
+            heap.add(recipe);
+        } else if (costs.profitValue(recipe) > costs.profitValue(heap.peek())) {
+            heap.poll();
+            heap.add(recipe);
+        }
+    }
+
+    // empties the heap into a list ordered by profit, highest first
+    private static List<RecipeProfitDTO> drain(PriorityQueue<Integer> heap, CraftingCosts costs) {
+        List<RecipeProfitDTO> entries = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            entries.add(CraftingCostService.toProfitDTO(costs, heap.poll()));
+        }
+        Collections.reverse(entries);
+        return Collections.unmodifiableList(entries);
+    }
+
+    private static LeaderboardDTO pick(Boards boards, Integer professionId) {
+        if (professionId == null) {
+            return boards.all();
+        }
+        LeaderboardDTO board = boards.byProfession().get(professionId);
+        return board != null ? board : new LeaderboardDTO(professionId, boards.all().getUpdatedAt(), List.of());
+    }
+}
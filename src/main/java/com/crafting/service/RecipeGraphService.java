@@ -0,0 +1,55 @@
+package com.crafting.service;
+
+import org.springframework.stereotype.Service;
+
+import com.crafting.model.RecipeGraph;
+import com.crafting.repository.RecipeGraphJdbcRepository;
+
+/**
+ * Holds the recipe graph in memory. It is loaded on first use and swapped as a
+ * whole on reload, so readers always see one consistent graph. Writers of recipes
+ * or items {@link #invalidate() invalidate} it; crafting costs notice the new
+ * graph and are recomputed with it.
+ */
+@Service
+public class RecipeGraphService {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RecipeGraphService.class);
+
+    private final RecipeGraphJdbcRepository recipeGraphJdbcRepository;
+    private volatile RecipeGraph graph;
+
+    public RecipeGraphService(RecipeGraphJdbcRepository recipeGraphJdbcRepository) {
+        this.recipeGraphJdbcRepository = recipeGraphJdbcRepository;
+    }
+
+    public RecipeGraph getGraph() {
+        RecipeGraph current = graph;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            return graph != null ? graph : reload();
+        }
+    }
+
+    /**
+     * Drops the graph so it is reloaded on next use, after recipes or items were written.
+     */
+    public synchronized void invalidate() {
+        graph = null;
+        logger.debug("Recipe graph invalidated");
+    }
+
+    /**
+     * Reloads the graph from the database, e.g. after recipes were changed.
+     * @return the new graph
+     */
+    public synchronized RecipeGraph reload() {
+        long start = System.nanoTime();
+        RecipeGraph loaded = recipeGraphJdbcRepository.loadGraph();
+        graph = loaded;
+        logger.info("Loaded recipe graph: {} recipes, {} items in {} ms", loaded.recipeCount(),
+            loaded.itemCount(), (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+}
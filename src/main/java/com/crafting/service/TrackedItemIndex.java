@@ -0,0 +1,103 @@
+package com.crafting.service;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import org.springframework.stereotype.Component;
+
+import com.crafting.repository.ItemRepository;
+
+/**
+ * In-memory index of the item IDs stored in the database, used to filter auctions.
+ * The IDs are kept as a bitset that is loaded once from {@code findAllIds()} and
+ * then kept current by the item endpoints. Updates copy the bitset, so a snapshot
+ * handed to a running fetch never changes underneath it.
+ */
+@Component
+public class TrackedItemIndex {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TrackedItemIndex.class);
+
+    private final ItemRepository itemRepository;
+    // null until first use or after invalidate(); never mutated once published
+    private volatile BitSet ids;
+
+    public TrackedItemIndex(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    /**
+     * Returns a fixed view of the tracked IDs for one fetch.
+     * @return predicate that tests whether an item ID is tracked
+     */
+    public IntPredicate snapshot() {
+        BitSet current = load();
+        return current::get;
+    }
+
+    public boolean contains(long itemId) {
+        return isIndexable(itemId) && load().get((int) itemId);
+    }
+
+    public int size() {
+        return load().cardinality();
+    }
+
+    /**
+     * Marks an item as tracked, after it was saved.
+     */
+    public synchronized void add(long itemId) {
+        BitSet current = ids;
+        if (current == null || !isIndexable(itemId) || current.get((int) itemId)) {
+            return;
+        }
+        BitSet updated = (BitSet) current.clone();
+        updated.set((int) itemId);
+        ids = updated;
+    }
+
+    /**
+     * Stops tracking an item, after it was deleted.
+     */
+    public synchronized void remove(long itemId) {
+        BitSet current = ids;
+        if (current == null || !isIndexable(itemId) || !current.get((int) itemId)) {
+            return;
+        }
+        BitSet updated = (BitSet) current.clone();
+        updated.clear((int) itemId);
+        ids = updated;
+    }
+
+    /**
+     * Drops the index so it is reloaded from the database on next use, for bulk changes.
+     */
+    public synchronized void invalidate() {
+        ids = null;
+    }
+
+    private BitSet load() {
+        BitSet current = ids;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (ids == null) {
+                List<Long> itemIds = itemRepository.findAllIds();
+                BitSet loaded = new BitSet();
+                for (Long id : itemIds) {
+                    if (isIndexable(id)) {
+                        loaded.set(id.intValue());
+                    }
+                }
+                logger.debug("Loaded {} tracked item IDs", loaded.cardinality());
+                ids = loaded;
+            }
+            return ids;
+        }
+    }
+
+    private static boolean isIndexable(long itemId) {
+        return itemId >= 0 && itemId <= Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,59 @@
+-- Turn item_price_history into a table range-partitioned by month on recorded_at.
+-- Partitions are named item_price_history_YYYY_MM with UTC month boundaries;
+-- PriceHistoryPartitionMaintainer keeps creating future ones and expires old ones.
+
+ALTER TABLE item_price_history RENAME TO item_price_history_unpartitioned;
+ALTER INDEX idx_item_price_history_item_recorded_at
+    RENAME TO idx_item_price_history_unpartitioned_item_recorded_at;
+-- free the primary key's name too; index names are unique per schema
+ALTER TABLE item_price_history_unpartitioned
+    RENAME CONSTRAINT item_price_history_pkey TO item_price_history_unpartitioned_pkey;
+
+-- Identity columns are not usable on partitioned tables in every supported
+-- Postgres version, so ids come from a plain sequence instead.
+CREATE SEQUENCE item_price_history_seq;
+
+CREATE TABLE item_price_history (
+    id bigint NOT NULL DEFAULT nextval('item_price_history_seq'),
+    item_id bigint NOT NULL,
+    price bigint NOT NULL,
+    recorded_at timestamptz NOT NULL,
+    source varchar(255),
+    -- the partition key has to be part of the primary key
+    PRIMARY KEY (id, recorded_at),
+    -- named explicitly: the renamed table still holds the default name until it is
+    -- dropped, so Postgres would otherwise pick item_price_history_item_id_fkey1.
+    -- History is written every fetch, so deleting an item takes its history with it.
+    CONSTRAINT item_price_history_item_id_fkey
+        FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE
+) PARTITION BY RANGE (recorded_at);
+
+ALTER SEQUENCE item_price_history_seq OWNED BY item_price_history.id;
+
+CREATE INDEX idx_item_price_history_item_recorded_at
+    ON item_price_history(item_id, recorded_at DESC);
+
+-- Monthly partitions from the oldest stored row up to three months ahead
+DO $$
+DECLARE
+  month_start date := date_trunc('month', COALESCE(
+      (SELECT MIN(recorded_at) FROM item_price_history_unpartitioned), now()) AT TIME ZONE 'UTC');
+  last_month date := date_trunc('month', (now() + interval '3 months') AT TIME ZONE 'UTC');
+BEGIN
+  WHILE month_start <= last_month LOOP
+    EXECUTE format(
+      'CREATE TABLE IF NOT EXISTS %I PARTITION OF item_price_history FOR VALUES FROM (%L) TO (%L)',
+      'item_price_history_' || to_char(month_start, 'YYYY_MM'),
+      month_start::text || ' 00:00:00+00',
+      (month_start + interval '1 month')::date::text || ' 00:00:00+00');
+    month_start := (month_start + interval '1 month')::date;
+  END LOOP;
+END
+$$;
+
+INSERT INTO item_price_history (id, item_id, price, recorded_at, source)
+SELECT id, item_id, price, recorded_at, source FROM item_price_history_unpartitioned;
+
+SELECT setval('item_price_history_seq', COALESCE((SELECT MAX(id) FROM item_price_history), 0) + 1, false);
+
+DROP TABLE item_price_history_unpartitioned;
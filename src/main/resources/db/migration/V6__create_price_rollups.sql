@@ -0,0 +1,54 @@
+-- Hourly and daily OHLC rollups of item_price_history, upserted as each fetch lands.
+-- first/last_recorded_at let out-of-order samples (e.g. backfills) still produce
+-- the right open and close.
+
+CREATE TABLE item_price_rollup_hourly (
+    item_id bigint NOT NULL REFERENCES items(id) ON DELETE CASCADE,
+    bucket_start timestamptz NOT NULL,
+    open_price bigint NOT NULL,
+    high_price bigint NOT NULL,
+    low_price bigint NOT NULL,
+    close_price bigint NOT NULL,
+    price_sum bigint NOT NULL,
+    sample_count integer NOT NULL,
+    first_recorded_at timestamptz NOT NULL,
+    last_recorded_at timestamptz NOT NULL,
+    PRIMARY KEY (item_id, bucket_start)
+);
+
+CREATE TABLE item_price_rollup_daily (
+    item_id bigint NOT NULL REFERENCES items(id) ON DELETE CASCADE,
+    bucket_start timestamptz NOT NULL,
+    open_price bigint NOT NULL,
+    high_price bigint NOT NULL,
+    low_price bigint NOT NULL,
+    close_price bigint NOT NULL,
+    price_sum bigint NOT NULL,
+    sample_count integer NOT NULL,
+    first_recorded_at timestamptz NOT NULL,
+    last_recorded_at timestamptz NOT NULL,
+    PRIMARY KEY (item_id, bucket_start)
+);
+
+-- Seed the rollups from history recorded so far (UTC buckets)
+INSERT INTO item_price_rollup_hourly
+SELECT item_id, bucket_start,
+       (array_agg(price ORDER BY recorded_at))[1],
+       MAX(price), MIN(price),
+       (array_agg(price ORDER BY recorded_at DESC))[1],
+       SUM(price), COUNT(*), MIN(recorded_at), MAX(recorded_at)
+FROM (SELECT item_id, price, recorded_at,
+             date_trunc('hour', recorded_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' AS bucket_start
+      FROM item_price_history) h
+GROUP BY item_id, bucket_start;
+
+INSERT INTO item_price_rollup_daily
+SELECT item_id, bucket_start,
+       (array_agg(price ORDER BY recorded_at))[1],
+       MAX(price), MIN(price),
+       (array_agg(price ORDER BY recorded_at DESC))[1],
+       SUM(price), COUNT(*), MIN(recorded_at), MAX(recorded_at)
+FROM (SELECT item_id, price, recorded_at,
+             date_trunc('day', recorded_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' AS bucket_start
+      FROM item_price_history) h
+GROUP BY item_id, bucket_start;
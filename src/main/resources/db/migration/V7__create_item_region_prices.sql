@@ -0,0 +1,12 @@
+-- Latest price of an item per fetch target (region commodities or connected realm).
+-- source matches item_price_history.source, e.g. 'eu-commodities' or 'us-realm-3676'.
+
+CREATE TABLE item_region_prices (
+    item_id bigint NOT NULL REFERENCES items(id) ON DELETE CASCADE,
+    source varchar(64) NOT NULL,
+    price bigint NOT NULL,
+    recorded_at timestamptz NOT NULL,
+    PRIMARY KEY (item_id, source)
+);
+
+CREATE INDEX idx_item_region_prices_source ON item_region_prices(source);
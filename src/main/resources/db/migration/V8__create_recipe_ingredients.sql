@@ -0,0 +1,91 @@
+-- Recipe ingredients as rows instead of the recipes.ingredients_json blob.
+-- One row per (recipe, ingredient item); quantity is the amount consumed per craft.
+
+CREATE TABLE recipe_ingredients (
+    recipe_id bigint NOT NULL REFERENCES recipes(id) ON DELETE CASCADE,
+    -- no cascade: deleting an item still used by a recipe is refused (409)
+    item_id bigint NOT NULL REFERENCES items(id),
+    quantity integer NOT NULL CHECK (quantity > 0),
+    PRIMARY KEY (recipe_id, item_id)
+);
+
+-- "which recipes use this item", for cost propagation
+CREATE INDEX idx_recipe_ingredients_item ON recipe_ingredients (item_id);
+
+-- Backfill from the JSON. Accepted shapes:
+--   [{"itemId": 1, "quantity": 2}, ...] (also item_id / id / item.id and qty)
+--   {"1": 2, ...} (item id -> quantity)
+-- Every entry is parsed first; casts are guarded so a malformed entry is set
+-- aside instead of failing the migration.
+CREATE TEMPORARY TABLE recipe_ingredient_entries AS
+SELECT raw.recipe_id, raw.entry,
+       CASE WHEN raw.item_text ~ '^[0-9]{1,18}$' THEN raw.item_text::bigint END AS item_id,
+       CASE WHEN raw.quantity_text ~ '^[0-9]{1,9}(\.[0-9]+)?$' THEN raw.quantity_text::numeric END AS quantity
+FROM (
+    SELECT r.id AS recipe_id, e AS entry,
+           COALESCE(e->>'itemId', e->>'item_id', e->>'id', e->'item'->>'id') AS item_text,
+           COALESCE(e->>'quantity', e->>'qty', '1') AS quantity_text
+    FROM recipes r
+    CROSS JOIN LATERAL jsonb_array_elements(
+        CASE WHEN jsonb_typeof(r.ingredients_json) = 'array' THEN r.ingredients_json ELSE '[]'::jsonb END) e
+    UNION ALL
+    SELECT r.id, jsonb_build_object(kv.key, kv.value), kv.key, kv.value
+    FROM recipes r
+    CROSS JOIN LATERAL jsonb_each_text(
+        CASE WHEN jsonb_typeof(r.ingredients_json) = 'object' THEN r.ingredients_json ELSE '{}'::jsonb END) kv
+    UNION ALL
+    -- neither array nor object: nothing to parse, kept as one malformed entry
+    SELECT r.id, r.ingredients_json, NULL, NULL
+    FROM recipes r
+    WHERE jsonb_typeof(r.ingredients_json) NOT IN ('array', 'object', 'null')
+) raw;
+
+-- Duplicate entries are summed
+INSERT INTO recipe_ingredients (recipe_id, item_id, quantity)
+SELECT e.recipe_id, e.item_id, SUM(e.quantity)::integer
+FROM recipe_ingredient_entries e
+WHERE e.item_id IS NOT NULL
+  AND e.quantity IS NOT NULL
+  AND EXISTS (SELECT 1 FROM items it WHERE it.id = e.item_id)
+GROUP BY e.recipe_id, e.item_id
+HAVING SUM(e.quantity) >= 1;
+
+-- Entries that did not become a row, kept for repair instead of being dropped
+CREATE TABLE recipe_ingredients_unmatched (
+    recipe_id bigint NOT NULL REFERENCES recipes(id) ON DELETE CASCADE,
+    entry jsonb NOT NULL,
+    -- malformed, unknown_item or non_positive_quantity
+    reason varchar(32) NOT NULL
+);
+
+INSERT INTO recipe_ingredients_unmatched (recipe_id, entry, reason)
+SELECT e.recipe_id, e.entry,
+       CASE
+           WHEN e.item_id IS NULL OR e.quantity IS NULL THEN 'malformed'
+           WHEN NOT EXISTS (SELECT 1 FROM items it WHERE it.id = e.item_id) THEN 'unknown_item'
+           ELSE 'non_positive_quantity'
+       END
+FROM recipe_ingredient_entries e
+WHERE NOT EXISTS (
+    SELECT 1 FROM recipe_ingredients ri WHERE ri.recipe_id = e.recipe_id AND ri.item_id = e.item_id);
+
+DROP TABLE recipe_ingredient_entries;
+
+DO $$
+DECLARE
+  entries integer;
+  affected text;
+BEGIN
+  SELECT COUNT(*), string_agg(DISTINCT recipe_id::text, ', ')
+    INTO entries, affected
+    FROM recipe_ingredients_unmatched;
+  IF entries > 0 THEN
+    RAISE WARNING '% recipe ingredient entries could not be migrated (recipes %); see recipe_ingredients_unmatched',
+      entries, affected;
+  END IF;
+END
+$$;
+
+-- ingredients_json is no longer read or written; it is kept so nothing the
+-- backfill could not convert is lost, and can be dropped once
+-- recipe_ingredients_unmatched has been worked off.
@@ -0,0 +1,16 @@
+-- One history row per item, fetch target and fetch time, so writing a fetch again
+-- (e.g. replaying its dump) cannot duplicate samples, whoever else is writing.
+-- A unique index on the partitioned table has to contain the partition key,
+-- recorded_at, which it does. source and recorded_at lead so the rows of one
+-- fetch, which share both, are found with a single index range scan.
+
+-- drop duplicates written by earlier replays, keeping the first row
+DELETE FROM item_price_history dup
+USING item_price_history kept
+WHERE dup.item_id = kept.item_id
+  AND dup.source = kept.source
+  AND dup.recorded_at = kept.recorded_at
+  AND dup.id > kept.id;
+
+CREATE UNIQUE INDEX idx_item_price_history_source_recorded_at_item
+    ON item_price_history(source, recorded_at, item_id);
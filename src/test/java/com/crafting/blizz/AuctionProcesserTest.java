@@ -0,0 +1,176 @@
+package com.crafting.blizz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+class AuctionProcesserTest {
+
+    private final AuctionProcesser auctionProcesser = new AuctionProcesser(new SelectionPriceEstimator(), new BlizzConfig());
+
+    @Test
+    void streamingParse_matchesTreeParse_onRandomDump() throws Exception {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder();
+        json.append("{\"_links\":{\"self\":{\"href\":\"https://eu.api.blizzard.com/\"}},\"auctions\":[");
+        for (int i = 0; i < 5_000; i++) {
+            if (i > 0) json.append(',');
+            int itemId = 1 + random.nextInt(50);
+            long unitPrice = 1 + random.nextInt(1_000_000);
+            int quantity = 1 + random.nextInt(200);
+            // vary field order so the item id is not always seen first
+            if (random.nextBoolean()) {
+                json.append("{\"id\":").append(i)
+                    .append(",\"item\":{\"id\":").append(itemId).append('}')
+                    .append(",\"quantity\":").append(quantity)
+                    .append(",\"unit_price\":").append(unitPrice)
+                    .append(",\"time_left\":\"SHORT\"}");
+            } else {
+                json.append("{\"unit_price\":").append(unitPrice)
+                    .append(",\"quantity\":").append(quantity)
+                    .append(",\"time_left\":\"LONG\"")
+                    .append(",\"item\":{\"modifiers\":[{\"type\":1,\"value\":2}],\"id\":").append(itemId).append('}')
+                    .append(",\"id\":").append(i).append('}');
+            }
+        }
+        json.append("],\"commodities\":{\"href\":\"x\"}}");
+        String body = json.toString();
+        Set<Integer> tracked = Set.of(1, 2, 3, 10, 25, 49, 500);
+
+        Map<Integer, List<AuctionEntry>> tree = auctionProcesser.processAndCollect(body, tracked);
+        Map<Integer, List<AuctionEntry>> streamed = auctionProcesser.collect(
+            new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), tracked::contains)
+            .toAuctionEntries();
+
+        assertThat(tree).isNotEmpty();
+        assertThat(describe(streamed)).isEqualTo(describe(tree));
+    }
+
+    @Test
+    void streamingParse_skipsMalformedAuctions_likeTreeParse() throws Exception {
+        String body = "{\"auctions\":[1,null,{\"quantity\":3},"
+            + "{\"item\":7,\"unit_price\":5,\"quantity\":1},"
+            + "{\"item\":{\"id\":0},\"unit_price\":5,\"quantity\":1},"
+            + "{\"item\":{\"id\":7},\"unit_price\":{\"x\":1},\"quantity\":\"4\"},"
+            + "{\"item\":{\"id\":7},\"unit_price\":12}]}";
+        Set<Integer> tracked = Set.of(7);
+
+        Map<Integer, List<AuctionEntry>> tree = auctionProcesser.processAndCollect(body, tracked);
+        Map<Integer, List<AuctionEntry>> streamed = auctionProcesser.collect(
+            new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), tracked::contains)
+            .toAuctionEntries();
+
+        assertThat(describe(streamed)).isEqualTo(describe(tree));
+        assertThat(streamed.get(7)).hasSize(2);
+    }
+
+    @Test
+    void realmAuctions_fallBackToBuyoutPerUnit_andSkipBidOnly() throws Exception {
+        String body = "{\"auctions\":["
+            + "{\"item\":{\"id\":7},\"buyout\":300,\"quantity\":3},"
+            + "{\"item\":{\"id\":7},\"buyout\":50,\"quantity\":0},"
+            + "{\"item\":{\"id\":7},\"bid\":10,\"quantity\":1}]}";
+        Set<Integer> tracked = Set.of(7);
+
+        Map<Integer, List<AuctionEntry>> tree = auctionProcesser.processAndCollect(body, tracked);
+        AuctionAccumulator streamed = auctionProcesser.collect(
+            new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), tracked::contains);
+
+        assertThat(describe(streamed.toAuctionEntries())).isEqualTo(describe(tree));
+        assertThat(streamed.auctionCount()).isEqualTo(2);
+        assertThat(streamed.auctionsSeen()).isEqualTo(3);
+        assertThat(streamed.prices(0)).startsWith(100L, 50L);
+    }
+
+    @Test
+    void streamingParse_returnsEmpty_whenNoAuctionsArray() throws Exception {
+        AuctionAccumulator streamed = auctionProcesser.collect(
+            new ByteArrayInputStream("{\"auctions\":{}}".getBytes(StandardCharsets.UTF_8)), id -> true);
+
+        assertThat(streamed.size()).isZero();
+    }
+
+    @Test
+    void primitivePricing_matchesBoxedPricing() {
+        Random random = new Random(7);
+        AuctionAccumulator accumulator = new AuctionAccumulator();
+        for (int i = 0; i < 50_000; i++) {
+            // few distinct prices so ties between different quantities are common
+            accumulator.add(1 + random.nextInt(300), 100 + random.nextInt(40), random.nextInt(20));
+        }
+        Map<Integer, Long> boxed = auctionProcesser.calculateAveragePrices(accumulator.toAuctionEntries());
+
+        Map<Integer, Long> primitive = auctionProcesser.calculateAveragePrices(accumulator).toMap();
+
+        assertThat(primitive).isEqualTo(boxed);
+    }
+
+    @Test
+    void parallelPricing_matchesSequentialPricing() {
+        BlizzConfig parallelConfig = new BlizzConfig();
+        parallelConfig.setPriceParallelism(4);
+        parallelConfig.setPriceParallelThreshold(1);
+        BlizzConfig sequentialConfig = new BlizzConfig();
+        sequentialConfig.setPriceParallelism(1);
+        AuctionProcesser parallel = new AuctionProcesser(new SelectionPriceEstimator(), parallelConfig);
+        AuctionProcesser sequential = new AuctionProcesser(new SelectionPriceEstimator(), sequentialConfig);
+
+        Random random = new Random(11);
+        AuctionAccumulator accumulator = new AuctionAccumulator();
+        for (int i = 0; i < 100_000; i++) {
+            accumulator.add(1 + random.nextInt(2_000), 1 + random.nextInt(10_000), 1 + random.nextInt(50));
+        }
+
+        try {
+            ItemPrices expected = sequential.calculateAveragePrices(accumulator);
+            ItemPrices actual = parallel.calculateAveragePrices(accumulator);
+
+            assertThat(actual.size()).isEqualTo(expected.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.itemId(i)).isEqualTo(expected.itemId(i));
+                assertThat(actual.price(i)).isEqualTo(expected.price(i));
+            }
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void batchedPricing_emitsBatchesThatAddUpToFullPricing() throws Exception {
+        Random random = new Random(11);
+        AuctionAccumulator accumulator = new AuctionAccumulator();
+        for (int i = 0; i < 10_000; i++) {
+            accumulator.add(1 + random.nextInt(1_000), 1 + random.nextInt(100_000), 1 + random.nextInt(50));
+        }
+        List<ItemPrices> batches = new java.util.ArrayList<>();
+
+        ItemPrices all = auctionProcesser.calculateAveragePrices(accumulator, 300, batches::add);
+        ItemPrices expected = auctionProcesser.calculateAveragePrices(accumulator);
+
+        assertThat(batches).hasSize((accumulator.size() + 299) / 300);
+        assertThat(batches.stream().mapToInt(ItemPrices::size).sum()).isEqualTo(expected.size());
+        assertThat(all.toMap()).isEqualTo(expected.toMap());
+        int i = 0;
+        for (ItemPrices batch : batches) {
+            assertThat(batch.size()).isLessThanOrEqualTo(300);
+            for (int j = 0; j < batch.size(); j++, i++) {
+                assertThat(batch.itemId(j)).isEqualTo(expected.itemId(i));
+                assertThat(batch.price(j)).isEqualTo(expected.price(i));
+            }
+        }
+    }
+
+    private static Map<Integer, String> describe(Map<Integer, List<AuctionEntry>> auctions) {
+        Map<Integer, String> described = new TreeMap<>();
+        auctions.forEach((itemId, entries) -> described.put(itemId, entries.toString()));
+        return described;
+    }
+}
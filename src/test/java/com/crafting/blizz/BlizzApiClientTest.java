@@ -0,0 +1,248 @@
+package com.crafting.blizz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+class BlizzApiClientTest {
+
+    private static final String LAST_MODIFIED = "Tue, 06 Oct 2026 10:00:00 GMT";
+    private static final String BODY = "{\"auctions\":[{\"item\":{\"id\":1},\"unit_price\":10,\"quantity\":2}]}";
+
+    private HttpServer server;
+    private final List<String> receivedIfModifiedSince = new CopyOnWriteArrayList<>();
+    private final List<String> receivedIfNoneMatch = new CopyOnWriteArrayList<>();
+    private volatile String currentEtag = "\"v1\"";
+    private MeterRegistry meterRegistry;
+    private BlizzApiClient client;
+
+    @BeforeEach
+    void startStubServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/data/wow/auctions/commodities", exchange -> {
+            String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            receivedIfModifiedSince.add(String.valueOf(ifModifiedSince));
+            receivedIfNoneMatch.add(String.valueOf(ifNoneMatch));
+            if (currentEtag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                body = gzip(body);
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+            exchange.getResponseHeaders().add("ETag", currentEtag);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        client = newClient("");
+    }
+
+    private static final FetchTarget EU = FetchTarget.parse("eu");
+
+    private BlizzApiClient newClient(String snapshotDirectory) {
+        return newClient(snapshotDirectory, new BlizzConfig().getPipelineChunks());
+    }
+
+    private BlizzApiClient newClient(String snapshotDirectory, int pipelineChunks) {
+        BlizzConfig config = new BlizzConfig();
+        config.setSnapshotDirectory(snapshotDirectory);
+        config.setPipelineChunks(pipelineChunks);
+        config.setApiBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        meterRegistry = new SimpleMeterRegistry();
+        return new BlizzApiClient(config, meterRegistry, new SnapshotStore(config));
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        server.stop(0);
+    }
+
+    // fetches and marks the dump as processed, as a fetch does once its prices are stored
+    private static <T> Optional<T> fetchProcessed(BlizzApiClient client, BlizzApiClient.BodyHandler<T> handler) {
+        Optional<BlizzApiClient.Fetched<T>> fetched = client.fetchAuctions(EU, "token", handler);
+        fetched.ifPresent(client::markProcessed);
+        return fetched.map(BlizzApiClient.Fetched::result);
+    }
+
+    @Test
+    void secondFetch_isConditional_andSkippedOn304() {
+        AtomicInteger handled = new AtomicInteger();
+
+        Optional<Integer> first = fetchProcessed(client, body -> {
+            handled.incrementAndGet();
+            return body.readAllBytes().length;
+        });
+        Optional<Integer> second = fetchProcessed(client, body -> handled.incrementAndGet());
+
+        assertThat(first).contains(BODY.length());
+        assertThat(second).isEmpty();
+        assertThat(handled).hasValue(1);
+        assertThat(receivedIfModifiedSince).containsExactly("null", LAST_MODIFIED);
+        assertThat(receivedIfNoneMatch).containsExactly("null", "\"v1\"");
+        assertThat(meterRegistry.get("blizzard.fetch.skipped").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("blizzard.fetch.download").tag("status", "200").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("blizzard.fetch.download").tag("status", "304").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("blizzard.fetch.bytes").summary().totalAmount()).isPositive();
+    }
+
+    @Test
+    void changedDump_isProcessedAgain() {
+        fetchProcessed(client, body -> body.readAllBytes().length);
+        currentEtag = "\"v2\"";
+
+        Optional<Integer> second = fetchProcessed(client, body -> body.readAllBytes().length);
+
+        assertThat(second).contains(BODY.length());
+        assertThat(meterRegistry.get("blizzard.fetch.skipped").counter().count()).isZero();
+    }
+
+    @Test
+    void dumpNotMarkedProcessed_isDownloadedAgain() {
+        AtomicInteger handled = new AtomicInteger();
+
+        // e.g. pricing or the price write failed after the dump was parsed
+        client.fetchAuctions(EU, "token", body -> handled.incrementAndGet());
+        Optional<Integer> retry = fetchProcessed(client, body -> handled.incrementAndGet());
+
+        assertThat(retry).contains(2);
+        assertThat(receivedIfNoneMatch).containsExactly("null", "null");
+    }
+
+    @Test
+    void gzipResponse_isDecompressed_andArchivedUnderContentHash(@TempDir Path snapshotDir) throws Exception {
+        BlizzApiClient archivingClient = newClient(snapshotDir.toString());
+        String sha256 = HexFormat.of().formatHex(
+            MessageDigest.getInstance("SHA-256").digest(BODY.getBytes(StandardCharsets.UTF_8)));
+
+        Optional<String> body = fetchProcessed(archivingClient,
+            in -> new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        // same content under a new ETag is kept only once
+        currentEtag = "\"v2\"";
+        fetchProcessed(archivingClient, in -> in.read());
+
+        assertThat(body).contains(BODY);
+        try (Stream<Path> files = Files.list(snapshotDir)) {
+            assertThat(files.map(f -> f.getFileName().toString()))
+                .containsExactlyInAnyOrder(sha256 + ".json.gz", SnapshotStore.INDEX_FILE);
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshotDir.resolve(sha256 + ".json.gz")))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        }
+        assertThat(Files.readAllLines(snapshotDir.resolve(SnapshotStore.INDEX_FILE)))
+            .containsExactly(sha256 + "\teu-commodities\t2026-10-06T10:00Z");
+    }
+
+    @Test
+    void failedHandler_leavesNoSnapshot(@TempDir Path snapshotDir) throws Exception {
+        BlizzApiClient archivingClient = newClient(snapshotDir.toString());
+        try {
+            archivingClient.fetchAuctions(EU, "token", body -> {
+                throw new java.io.IOException("parse failed");
+            });
+        } catch (RuntimeException expected) {
+            // the failure surfaces to the caller
+        }
+
+        try (Stream<Path> files = Files.list(snapshotDir)) {
+            assertThat(files.toList()).isEmpty();
+        }
+    }
+
+    @Test
+    void failedHandler_doesNotRememberValidators() {
+        try {
+            client.fetchAuctions(EU, "token", body -> {
+                throw new java.io.IOException("parse failed");
+            });
+        } catch (RuntimeException expected) {
+            // the failure surfaces to the caller
+        }
+
+        Optional<Integer> retry = fetchProcessed(client, body -> body.readAllBytes().length);
+
+        assertThat(retry).contains(BODY.length());
+        assertThat(receivedIfNoneMatch).containsExactly("null", "null");
+    }
+
+    @Test
+    void pipelinedAndDirectReads_deliverSameBody_andReportBytes() {
+        List<Long> finished = new CopyOnWriteArrayList<>();
+        BlizzApiClient.FetchListener listener = new BlizzApiClient.FetchListener() {
+            @Override
+            public void bodyFinished(long bytesRead) {
+                finished.add(bytesRead);
+            }
+        };
+
+        Optional<String> direct = newClient("", 0).fetchAuctions(EU, "token",
+            in -> new String(in.readAllBytes(), StandardCharsets.UTF_8), listener).map(BlizzApiClient.Fetched::result);
+        Optional<String> piped = newClient("", 2).fetchAuctions(EU, "token",
+            in -> new String(in.readAllBytes(), StandardCharsets.UTF_8), listener).map(BlizzApiClient.Fetched::result);
+
+        assertThat(direct).contains(BODY);
+        assertThat(piped).contains(BODY);
+        // gzip-compressed size on the wire, the same for both
+        assertThat(finished).hasSize(2).allMatch(bytes -> bytes > 0).containsOnly(finished.get(0));
+    }
+
+    @Test
+    void pipelinedHandlerStoppingEarly_stillRecordsTheDownloadOnce() {
+        List<Long> finished = new CopyOnWriteArrayList<>();
+        BlizzApiClient.FetchListener listener = new BlizzApiClient.FetchListener() {
+            @Override
+            public void bodyFinished(long bytesRead) {
+                finished.add(bytesRead);
+            }
+        };
+
+        Optional<Integer> first = newClient("", 2).fetchAuctions(EU, "token", InputStream::read, listener)
+            .map(BlizzApiClient.Fetched::result);
+
+        assertThat(first).contains((int) '{');
+        assertThat(finished).hasSize(1);
+        assertThat(meterRegistry.get("blizzard.fetch.download").tag("status", "200").timer().count()).isEqualTo(1);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+}
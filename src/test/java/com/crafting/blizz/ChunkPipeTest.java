@@ -0,0 +1,87 @@
+package com.crafting.blizz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ChunkPipeTest {
+
+    @Test
+    void reader_seesExactlyTheSourceBytes() throws Exception {
+        byte[] data = new byte[1_000_003];
+        new Random(3).nextBytes(data);
+        ChunkPipe pipe = new ChunkPipe(4, 4096);
+        AtomicBoolean complete = new AtomicBoolean();
+
+        Thread producer = Thread.ofVirtual().start(() -> complete.set(pipe.pump(new ByteArrayInputStream(data))));
+        byte[] read;
+        try (InputStream in = pipe.reader()) {
+            read = in.readAllBytes();
+        }
+        producer.join();
+
+        assertThat(read).isEqualTo(data);
+        assertThat(complete).isTrue();
+    }
+
+    @Test
+    void slowReader_holdsProducerBack() throws Exception {
+        AtomicLong pulled = new AtomicLong();
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                pulled.incrementAndGet();
+                return 'x';
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                pulled.addAndGet(len);
+                return len;
+            }
+        };
+        ChunkPipe pipe = new ChunkPipe(2, 1024);
+        Thread producer = Thread.ofVirtual().start(() -> pipe.pump(endless));
+        InputStream in = pipe.reader();
+
+        in.readNBytes(10);
+        Thread.sleep(100);
+
+        // queued chunks plus the one being read and the one waiting to be queued
+        assertThat(pulled.get()).isLessThanOrEqualTo(4 * 1024);
+        in.close();
+        producer.join(5_000);
+        assertThat(producer.isAlive()).isFalse();
+    }
+
+    @Test
+    void sourceFailure_surfacesOnRead() throws Exception {
+        InputStream failing = new FilterInputStream(new ByteArrayInputStream(new byte[10_000])) {
+            private int reads;
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (++reads > 3) throw new IOException("connection reset");
+                return super.read(b, off, Math.min(len, 100));
+            }
+        };
+        ChunkPipe pipe = new ChunkPipe(4, 1024);
+        Thread producer = Thread.ofVirtual().start(() -> pipe.pump(failing));
+
+        try (InputStream in = pipe.reader()) {
+            assertThatThrownBy(in::readAllBytes)
+                .isInstanceOf(IOException.class)
+                .hasRootCauseMessage("connection reset");
+        }
+        producer.join();
+    }
+}
@@ -0,0 +1,70 @@
+package com.crafting.blizz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+class FetchJobTest {
+
+    @Test
+    void targetProgress_tracksOverlappingStages_andTotalsCounts() throws Exception {
+        FetchJob job = new FetchJob("manual", List.of(FetchTarget.parse("eu"), FetchTarget.parse("us")));
+        FetchJob.TargetProgress eu = job.target("eu-commodities");
+        FetchJob.TargetProgress us = job.target("us-commodities");
+
+        eu.start(FetchJob.Stage.DOWNLOAD);
+        Thread.sleep(5);
+        AtomicLong wire = new AtomicLong(100);
+        eu.bodyStarted(wire::get);
+        wire.set(250);
+        // parsing runs while the download is still going
+        assertThat(eu.getStage()).isEqualTo(FetchJob.Stage.PARSE);
+        assertThat(eu.getStageMillis()).containsKeys(FetchJob.Stage.DOWNLOAD, FetchJob.Stage.PARSE);
+        assertThat(job.getBytesRead()).isEqualTo(250);
+        eu.bodyFinished(300);
+        eu.end(FetchJob.Stage.PARSE);
+
+        AuctionAccumulator auctions = new AuctionAccumulator();
+        auctions.countSeen();
+        auctions.countSeen();
+        auctions.add(7, 100, 1);
+        eu.collected(auctions);
+        eu.start(FetchJob.Stage.AGGREGATE);
+        eu.start(FetchJob.Stage.PERSIST);
+        eu.start(FetchJob.Stage.PERSIST);
+        eu.end(FetchJob.Stage.AGGREGATE);
+        eu.done(1);
+        us.start(FetchJob.Stage.DOWNLOAD);
+        us.notModified();
+
+        assertThat(eu.getStageMillis()).containsOnlyKeys(
+            FetchJob.Stage.DOWNLOAD, FetchJob.Stage.PARSE, FetchJob.Stage.AGGREGATE, FetchJob.Stage.PERSIST);
+        assertThat(eu.getStageMillis().get(FetchJob.Stage.DOWNLOAD)).isGreaterThanOrEqualTo(5);
+        assertThat(eu.getStage()).isEqualTo(FetchJob.Stage.DONE);
+        assertThat(job.getTargetsFinished()).isEqualTo(2);
+        assertThat(job.getBytesRead()).isEqualTo(300);
+        assertThat(job.getAuctionsSeen()).isEqualTo(2);
+        assertThat(job.getAuctionsMatched()).isEqualTo(1);
+        assertThat(job.getItemsPriced()).isEqualTo(1);
+    }
+
+    @Test
+    void failedTarget_keepsBytesReadSoFar() {
+        FetchJob job = new FetchJob("scheduled", List.of(FetchTarget.parse("eu")));
+        FetchJob.TargetProgress eu = job.target("eu-commodities");
+
+        eu.start(FetchJob.Stage.DOWNLOAD);
+        eu.bodyStarted(() -> 42);
+        eu.failed(new IllegalStateException("truncated"));
+        job.failed(new IllegalStateException("truncated"));
+
+        assertThat(eu.getStage()).isEqualTo(FetchJob.Stage.FAILED);
+        assertThat(eu.getBytesRead()).isEqualTo(42);
+        assertThat(eu.getStageMillis()).containsOnlyKeys(FetchJob.Stage.DOWNLOAD, FetchJob.Stage.PARSE);
+        assertThat(job.isFinished()).isTrue();
+        assertThat(job.getError()).contains("truncated");
+    }
+}
@@ -0,0 +1,65 @@
+package com.crafting.blizz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class FetchMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FetchMetrics metrics = new FetchMetrics(registry);
+
+    @Test
+    void finishedTarget_recordsStagesAndCounts() {
+        FetchJob job = new FetchJob("manual", List.of(FetchTarget.parse("eu")));
+        FetchJob.TargetProgress eu = job.target("eu-commodities");
+        eu.start(FetchJob.Stage.DOWNLOAD);
+        eu.bodyStarted(() -> 10);
+        eu.bodyFinished(10);
+        eu.end(FetchJob.Stage.PARSE);
+        AuctionAccumulator auctions = new AuctionAccumulator();
+        auctions.countSeen();
+        auctions.countSeen();
+        auctions.countSeen();
+        auctions.add(7, 100, 1);
+        eu.collected(auctions);
+        eu.start(FetchJob.Stage.AGGREGATE);
+        eu.start(FetchJob.Stage.PERSIST);
+        eu.end(FetchJob.Stage.AGGREGATE);
+        eu.persisted(1, 2);
+        eu.done(3);
+
+        metrics.targetFinished(eu);
+
+        for (String stage : List.of("parse", "aggregate", "persist")) {
+            assertThat(registry.get("blizzard.fetch.stage").tag("stage", stage).timer().count()).isEqualTo(1);
+        }
+        assertThat(registry.find("blizzard.fetch.stage").tag("stage", "download").timer()).isNull();
+        assertThat(registry.get("blizzard.fetch.auctions").tag("result", "seen").counter().count()).isEqualTo(3);
+        assertThat(registry.get("blizzard.fetch.auctions").tag("result", "matched").counter().count()).isEqualTo(1);
+        assertThat(registry.get("blizzard.fetch.items.priced").counter().count()).isEqualTo(3);
+        assertThat(registry.get("blizzard.fetch.rows").tag("result", "updated").counter().count()).isEqualTo(1);
+        assertThat(registry.get("blizzard.fetch.rows").tag("result", "missing").counter().count()).isEqualTo(2);
+        assertThat(registry.get("blizzard.fetch.targets").tag("result", "done").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedTargetAndJob_onlyRecordOutcome() {
+        FetchJob job = new FetchJob("scheduled", List.of(FetchTarget.parse("eu")));
+        FetchJob.TargetProgress eu = job.target("eu-commodities");
+        job.running();
+        eu.start(FetchJob.Stage.DOWNLOAD);
+        eu.failed(new IllegalStateException("503"));
+        job.failed(new IllegalStateException("503"));
+
+        metrics.targetFinished(eu);
+        metrics.jobFinished(job);
+
+        assertThat(registry.get("blizzard.fetch.targets").tag("result", "failed").counter().count()).isEqualTo(1);
+        assertThat(registry.find("blizzard.fetch.stage").timers()).isEmpty();
+        assertThat(registry.get("blizzard.fetch.job").tag("result", "failed").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,86 @@
+package com.crafting.blizz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class FetchSchedulerTest {
+
+    private FetchScheduler scheduler;
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void shutdown() {
+        if (scheduler != null) scheduler.shutdown();
+    }
+
+    private FetchScheduler newScheduler(int maxConcurrentPerRegion) {
+        BlizzConfig config = new BlizzConfig();
+        config.setMaxConcurrentPerRegion(maxConcurrentPerRegion);
+        config.setRequestsPerSecond(1000);
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new FetchScheduler(config, meterRegistry);
+        return scheduler;
+    }
+
+    @Test
+    void runAll_capsConcurrencyPerRegion() {
+        FetchScheduler scheduler = newScheduler(2);
+        List<FetchTarget> targets = IntStream.rangeClosed(1, 8)
+            .mapToObj(id -> FetchTarget.parse("eu:" + id))
+            .collect(Collectors.toList());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        int started = scheduler.runAll(targets, target -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return new FetchScheduler.TargetResult(true, 1);
+        });
+
+        assertThat(started).isEqualTo(8);
+        assertThat(peak.get()).isEqualTo(2);
+    }
+
+    @Test
+    void runAll_skipsTargetsStillRunning_andRecordsStatus() throws Exception {
+        FetchScheduler scheduler = newScheduler(4);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread first = Thread.ofVirtual().start(() -> scheduler.runAll(List.of(FetchTarget.parse("us")), target -> {
+            entered.countDown();
+            release.await();
+            return FetchScheduler.TargetResult.notModified();
+        }));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        int started = scheduler.runAll(
+            List.of(FetchTarget.parse("us"), FetchTarget.parse("eu")),
+            target -> { throw new IllegalStateException("boom"); });
+        release.countDown();
+        first.join();
+
+        assertThat(started).isEqualTo(1);
+        Map<String, FetchTargetStatus.State> states = scheduler.getStatuses().stream()
+            .collect(Collectors.toMap(FetchTargetStatus::getTarget, FetchTargetStatus::getState));
+        assertThat(states).containsEntry("us-commodities", FetchTargetStatus.State.NOT_MODIFIED)
+            .containsEntry("eu-commodities", FetchTargetStatus.State.FAILED);
+        // unchanged still counts as a successful cycle, a failure does not
+        assertThat(meterRegistry.get("fetch.last.success").tag("target", "us-commodities").gauge().value())
+            .isGreaterThan(0);
+        assertThat(meterRegistry.get("fetch.last.success").tag("target", "eu-commodities").gauge().value())
+            .isZero();
+    }
+}
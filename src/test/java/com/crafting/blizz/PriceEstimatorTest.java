@@ -0,0 +1,60 @@
+package com.crafting.blizz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+class PriceEstimatorTest {
+
+    private final PriceEstimator sorting = new SortingPriceEstimator();
+    private final PriceEstimator selection = new SelectionPriceEstimator();
+
+    @Test
+    void selection_matchesSorting_onRandomAuctions() {
+        Random random = new Random(20240501L);
+        for (int run = 0; run < 5_000; run++) {
+            int count = random.nextInt(run % 10 == 0 ? 5_000 : 60);
+            // narrow price ranges force ties between auctions with different quantities
+            int priceRange = 1 + random.nextInt(random.nextBoolean() ? 5 : 1_000_000);
+            long[] prices = new long[count];
+            int[] quantities = new int[count];
+            for (int i = 0; i < count; i++) {
+                prices[i] = 1 + random.nextInt(priceRange);
+                quantities[i] = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(500);
+            }
+            if (random.nextInt(8) == 0) {
+                Arrays.sort(prices); // dumps are often already ordered by price
+            }
+
+            long expected = sorting.estimate(prices.clone(), quantities.clone(), count);
+            long actual = selection.estimate(prices.clone(), quantities.clone(), count);
+
+            assertThat(actual)
+                .as("run %d with %d auctions", run, count)
+                .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void estimators_returnNoPrice_withoutQuantity() {
+        long[] prices = {10, 20, 30};
+        int[] quantities = {0, 0, 0};
+
+        assertThat(sorting.estimate(prices.clone(), quantities.clone(), 3)).isEqualTo(PriceEstimator.NO_PRICE);
+        assertThat(selection.estimate(prices.clone(), quantities.clone(), 3)).isEqualTo(PriceEstimator.NO_PRICE);
+        assertThat(selection.estimate(new long[0], new int[0], 0)).isEqualTo(PriceEstimator.NO_PRICE);
+    }
+
+    @Test
+    void selection_doublesCheapestHalfOfSelection() {
+        // 10 auctions -> cheapest 2 selected, the cheapest of those doubled
+        long[] prices = {90, 80, 70, 60, 50, 40, 30, 20, 100, 10};
+        int[] quantities = {1, 1, 1, 1, 1, 1, 1, 1, 1, 1};
+
+        // (10 * 2 + 20 * 1) / 3
+        assertThat(selection.estimate(prices, quantities, 10)).isEqualTo(13);
+    }
+}
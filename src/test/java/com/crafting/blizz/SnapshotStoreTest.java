@@ -0,0 +1,72 @@
+package com.crafting.blizz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+class SnapshotStoreTest {
+
+    private static final String OLD = "a".repeat(64);
+    private static final String NEW = "b".repeat(64);
+    private static final String UNINDEXED = "c".repeat(64);
+
+    @TempDir
+    Path dir;
+
+    private SnapshotStore store() {
+        BlizzConfig config = new BlizzConfig();
+        config.setSnapshotDirectory(dir.toString());
+        return new SnapshotStore(config);
+    }
+
+    @Test
+    void directory_isListedOldestFirst_withIndexedTargetsAndTimes() throws Exception {
+        writeSnapshot(NEW);
+        writeSnapshot(OLD);
+        writeSnapshot(UNINDEXED);
+        Files.setLastModifiedTime(dir.resolve(UNINDEXED + SnapshotStore.SUFFIX),
+            FileTime.from(Instant.parse("2026-10-01T00:00:00Z")));
+        Files.writeString(dir.resolve(SnapshotStore.INDEX_FILE),
+            NEW + "\teu-realm-1305\t2026-10-06T12:00Z\n" + OLD + "\teu-commodities\t2026-10-06T10:00Z\n");
+
+        List<SnapshotStore.Snapshot> snapshots = store().find(dir);
+
+        assertThat(snapshots).extracting(SnapshotStore.Snapshot::sha256).containsExactly(UNINDEXED, OLD, NEW);
+        // unindexed dumps count as the primary target at their file time
+        assertThat(snapshots.get(0).target()).isEqualTo("eu-commodities");
+        assertThat(snapshots.get(2).target()).isEqualTo("eu-realm-1305");
+        assertThat(snapshots.get(2).recordedAt()).isEqualTo(OffsetDateTime.parse("2026-10-06T12:00Z"));
+        assertThat(snapshots.get(2).label()).isEqualTo("eu-realm-1305/bbbbbbbbbbbb");
+    }
+
+    @Test
+    void locate_staysInSnapshotDirectory() throws Exception {
+        SnapshotStore store = store();
+
+        assertThat(store.locate(null)).isEqualTo(dir);
+        assertThat(store.locate(OLD)).isEqualTo(dir.resolve(OLD + SnapshotStore.SUFFIX));
+        assertThatThrownBy(() -> store.locate("../../etc/passwd")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store().find(dir.resolve("missing.json.gz"))).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> new SnapshotStore(new BlizzConfig()).locate(null))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    private void writeSnapshot(String sha256) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(dir.resolve(sha256 + SnapshotStore.SUFFIX)))) {
+            out.write("{\"auctions\":[]}".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.crafting.blizz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class TokenServiceTest {
+
+    private static final int CALLERS = 64;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private volatile int expiresIn = 3600;
+    private volatile int failuresLeft = 0;
+    private MeterRegistry meterRegistry;
+    private TokenService tokenService;
+
+    @BeforeEach
+    void startStubServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // handle requests in parallel so a stampede would actually reach the stub
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/token", exchange -> {
+            int n = tokenRequests.incrementAndGet();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = ("{\"access_token\":\"token-" + n + "\",\"token_type\":\"bearer\",\"expires_in\":"
+                + expiresIn + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        if (tokenService != null) tokenService.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private TokenService newService(long refreshMarginSeconds) {
+        BlizzConfig config = new BlizzConfig();
+        config.setTokenUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/token");
+        config.setTokenRefreshMarginSeconds(refreshMarginSeconds);
+        meterRegistry = new SimpleMeterRegistry();
+        tokenService = new TokenService(config, meterRegistry);
+        return tokenService;
+    }
+
+    private List<String> hammer(TokenService service) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(callers.submit(() -> {
+                    start.await();
+                    return service.getAccessToken("id", "secret");
+                }));
+            }
+            start.countDown();
+            List<String> tokens = new ArrayList<>();
+            for (Future<String> future : futures) {
+                tokens.add(future.get());
+            }
+            return tokens;
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private double successfulRefreshes() {
+        return meterRegistry.get("blizzard.token.refreshes").tag("result", "success").counter().count();
+    }
+
+    @Test
+    void concurrentCallers_shareOneRefresh() throws Exception {
+        TokenService service = newService(60);
+
+        List<String> tokens = hammer(service);
+
+        assertThat(tokens).hasSize(CALLERS).containsOnly("token-1");
+        assertThat(tokenRequests.get()).isEqualTo(1);
+        assertThat(successfulRefreshes()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("blizzard.token.age").gauge().value()).isGreaterThanOrEqualTo(0.0);
+    }
+
+    @Test
+    void tokenNearExpiry_isRenewedInBackground_whileCallersKeepTheOldOne() throws Exception {
+        // every token is inside the refresh margin as soon as it is issued
+        TokenService service = newService(3590);
+        assertThat(service.getAccessToken("id", "secret")).isEqualTo("token-1");
+
+        List<String> tokens = hammer(service);
+
+        // callers kept the still-valid token and the stampede caused one refresh
+        assertThat(tokens).containsOnly("token-1");
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (successfulRefreshes() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(tokenRequests.get()).isEqualTo(2);
+        assertThat(service.getAccessToken("id", "secret")).isEqualTo("token-2");
+    }
+
+    @Test
+    void failedRefresh_isReportedToAllWaiters_andNextCallRetries() throws Exception {
+        TokenService service = newService(60);
+        failuresLeft = 1;
+
+        assertThatThrownBy(() -> service.getAccessToken("id", "secret")).isInstanceOf(RuntimeException.class);
+        assertThat(meterRegistry.get("blizzard.token.refreshes").tag("result", "failure").counter().count())
+            .isEqualTo(1.0);
+
+        assertThat(hammer(service)).containsOnly("token-2");
+        assertThat(tokenRequests.get()).isEqualTo(2);
+    }
+}
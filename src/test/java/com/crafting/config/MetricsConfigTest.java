@@ -0,0 +1,25 @@
+package com.crafting.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class MetricsConfigTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    MetricsConfigTest() {
+        registry.config().meterFilter(new MetricsConfig().itemRequestHistograms());
+    }
+
+    @Test
+    void itemEndpoints_getHistogramBuckets() {
+        Timer items = Timer.builder("http.server.requests").tag("uri", "/items/{id}/history").register(registry);
+        Timer recipes = Timer.builder("http.server.requests").tag("uri", "/recipes").register(registry);
+
+        assertThat(items.takeSnapshot().histogramCounts()).hasSizeGreaterThanOrEqualTo(MetricsConfig.ITEM_REQUEST_SLOS.length);
+        assertThat(recipes.takeSnapshot().histogramCounts()).isEmpty();
+    }
+}
@@ -0,0 +1,83 @@
+package com.crafting.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.crafting.blizz.AHDataFetcher;
+import com.crafting.blizz.FetchJob;
+import com.crafting.blizz.FetchTarget;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+@WebMvcTest(AHFetchController.class)
+class AHFetchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AHDataFetcher ahDataFetcher;
+
+    private final FetchJob job = new FetchJob("manual", List.of(FetchTarget.parse("eu")));
+
+    @Test
+    void fetch_returnsJobIdImmediately() throws Exception {
+        when(ahDataFetcher.submitFetch("manual")).thenReturn(new AHDataFetcher.Submission(job, true));
+
+        mockMvc.perform(get("/craftingAH/fetch"))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string("Location", "/craftingAH/jobs/" + job.getId()))
+            .andExpect(jsonPath("$.jobId").value(job.getId()));
+    }
+
+    @Test
+    void fetch_answers409WithRunningJobId() throws Exception {
+        when(ahDataFetcher.submitFetch("manual")).thenReturn(new AHDataFetcher.Submission(job, false));
+
+        mockMvc.perform(get("/craftingAH/fetch"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.jobId").value(job.getId()));
+    }
+
+    @Test
+    void replay_startsJob_andRejectsBadHash() throws Exception {
+        when(ahDataFetcher.submitSnapshotReplay(null)).thenReturn(new AHDataFetcher.Submission(job, true));
+        when(ahDataFetcher.submitSnapshotReplay("nope")).thenThrow(new IllegalArgumentException("Not a SHA-256 hash: nope"));
+
+        mockMvc.perform(post("/craftingAH/replay"))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.jobId").value(job.getId()));
+        mockMvc.perform(post("/craftingAH/replay").param("snapshot", "nope"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void job_reportsPerTargetProgress() throws Exception {
+        when(ahDataFetcher.getJob(job.getId())).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/craftingAH/jobs/{id}", job.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.state").value("QUEUED"))
+            .andExpect(jsonPath("$.targets[0].target").value("eu-commodities"))
+            .andExpect(jsonPath("$.targets[0].stage").value("PENDING"))
+            .andExpect(jsonPath("$.bytesRead").value(0));
+    }
+
+    @Test
+    void job_answers404ForUnknownId() throws Exception {
+        when(ahDataFetcher.getJob("nope")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/craftingAH/jobs/nope"))
+            .andExpect(status().isNotFound());
+    }
+}
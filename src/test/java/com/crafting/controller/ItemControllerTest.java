@@ -0,0 +1,168 @@
+package com.crafting.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.crafting.config.HistoryConfig;
+import com.crafting.model.dto.ItemDTO;
+import com.crafting.model.dto.ItemPageDTO;
+import com.crafting.repository.ItemRepository;
+import com.crafting.service.DataVersion;
+import com.crafting.service.ItemService;
+import com.crafting.service.PriceHistoryService;
+import com.crafting.service.ProfitLeaderboardService;
+import com.crafting.service.RecipeGraphService;
+import com.crafting.service.TrackedItemIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+@WebMvcTest(ItemController.class)
+@Import(DataVersion.class)
+class ItemControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    @MockitoBean
+    private ItemRepository itemRepository;
+    @MockitoBean
+    private PriceHistoryService priceHistoryService;
+    @MockitoBean
+    private HistoryConfig historyConfig;
+    @MockitoBean
+    private TrackedItemIndex trackedItemIndex;
+    @MockitoBean
+    private ItemService itemService;
+    @MockitoBean
+    private RecipeGraphService recipeGraphService;
+    @MockitoBean
+    private ProfitLeaderboardService profitLeaderboardService;
+
+    @Test
+    void getAllItems_answers304ForCurrentEtag_withoutLoadingItems() throws Exception {
+        when(itemService.findAll()).thenReturn(List.of(new ItemDTO(1L, "Ore", null, null, null, false, null, null)));
+
+        String etag = mockMvc.perform(get("/items"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "no-cache"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/items").header("If-None-Match", etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+        verify(itemService, times(1)).findAll();
+    }
+
+    @Test
+    void getAllItems_sendsFullBody_afterDataVersionChanged() throws Exception {
+        when(itemService.findAll()).thenReturn(List.of(new ItemDTO(1L, "Ore", null, null, null, false, null, null)));
+        String etag = mockMvc.perform(get("/items"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        dataVersion.bump();
+
+        mockMvc.perform(get("/items").header("If-None-Match", etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", dataVersion.etag()));
+        verify(itemService, times(2)).findAll();
+    }
+
+    @Test
+    void getItemPage_rejectsOversizedLimit() throws Exception {
+        mockMvc.perform(get("/items/page").param("limit", "5000"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamItems_writesOneJsonObjectPerLine() throws Exception {
+        when(itemService.forEachItem(any())).thenAnswer(invocation -> {
+            Consumer<ItemDTO> consumer = invocation.getArgument(0);
+            consumer.accept(new ItemDTO(1L, "Ore", 2, "Mining", null, false, 150L, null));
+            consumer.accept(new ItemDTO(2L, "Dust", null, null, (short) 1, true, null, null));
+            return 2L;
+        });
+
+        String body = streamedBody();
+
+        String[] lines = body.split("\n");
+        assertThat(body).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{").endsWith("}").contains("\"id\":1", "\"currentPrice\":150");
+        assertThat(lines[1]).startsWith("{").endsWith("}").contains("\"id\":2", "\"finishingIngredient\":true");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamedLine_equalsTheItemsJsonInAPage() throws Exception {
+        ItemDTO item = new ItemDTO(1L, "Ore", 2, "Mining", (short) 3, false, 150L,
+            OffsetDateTime.parse("2026-10-06T12:00:00Z"));
+        when(itemService.forEachItem(any())).thenAnswer(invocation -> {
+            ((Consumer<ItemDTO>) invocation.getArgument(0)).accept(item);
+            return 1L;
+        });
+        when(itemService.findPage(0L, 200)).thenReturn(new ItemPageDTO(List.of(item), null));
+
+        String page = mockMvc.perform(get("/items/page"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        // the item is the only array in the page, and it holds no arrays itself
+        String pagedItem = page.substring(page.indexOf('[') + 1, page.lastIndexOf(']'));
+
+        assertThat(streamedBody()).isEqualTo(pagedItem + "\n");
+    }
+
+    private String streamedBody() throws Exception {
+        MvcResult started = mockMvc.perform(get("/items/stream"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "application/x-ndjson"))
+            .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    void deleteItem_answers409WhileARecipeUsesIt() throws Exception {
+        when(itemRepository.existsById(7L)).thenReturn(true);
+        when(itemRepository.isUsedByRecipes(7L)).thenReturn(true);
+
+        mockMvc.perform(delete("/items/7"))
+            .andExpect(status().isConflict());
+        verify(itemService, never()).deleteById(7L);
+    }
+
+    @Test
+    void deleteItem_refreshesCraftingCosts() throws Exception {
+        when(itemRepository.existsById(8L)).thenReturn(true);
+
+        mockMvc.perform(delete("/items/8"))
+            .andExpect(status().isNoContent());
+        verify(itemService).deleteById(8L);
+        verify(recipeGraphService).invalidate();
+        verify(profitLeaderboardService).refresh();
+    }
+}
@@ -0,0 +1,102 @@
+package com.crafting.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+class RecipeGraphTest {
+
+    // 10 (bar) <- 2x 1 (ore); 20 (sword) <- 3x 10 + 1x 2 (leather); 30 (alt bar) <- 5x 1 also makes 10
+    private RecipeGraph sampleGraph() {
+        return new RecipeGraph.Builder()
+            .addIngredient(200, 2, 1)
+            .addRecipe(200, 20, 1f)
+            .addRecipe(100, 10, 1f)
+            .addIngredient(100, 1, 2)
+            .addIngredient(200, 10, 3)
+            .addRecipe(300, 10, 2f)
+            .addIngredient(300, 1, 5)
+            .addIngredient(999, 1, 1) // recipe never added
+            .build();
+    }
+
+    private static List<String> ingredientsOf(RecipeGraph graph, long recipeId) {
+        int r = graph.recipeIndex(recipeId);
+        List<String> result = new ArrayList<>();
+        for (int k = graph.ingredientStart(r); k < graph.ingredientEnd(r); k++) {
+            result.add(graph.itemId(graph.ingredientItem(k)) + "x" + graph.ingredientQuantity(k));
+        }
+        return result;
+    }
+
+    private static List<Long> recipeIds(RecipeGraph graph, int from, int to, IntUnaryOperator entry) {
+        List<Long> result = new ArrayList<>();
+        for (int k = from; k < to; k++) {
+            result.add(graph.recipeId(entry.applyAsInt(k)));
+        }
+        return result;
+    }
+
+    @Test
+    void build_packsRecipesAndIngredientsInIdOrder() {
+        RecipeGraph graph = sampleGraph();
+
+        assertThat(graph.recipeCount()).isEqualTo(3);
+        assertThat(graph.itemCount()).isEqualTo(4);
+        assertThat(graph.recipeId(0)).isEqualTo(100);
+        assertThat(graph.itemId(graph.outputItem(graph.recipeIndex(300)))).isEqualTo(10);
+        assertThat(graph.outputQuantity(graph.recipeIndex(300))).isEqualTo(2f);
+        assertThat(ingredientsOf(graph, 100)).containsExactly("1x2");
+        assertThat(ingredientsOf(graph, 200)).containsExactlyInAnyOrder("2x1", "10x3");
+        assertThat(graph.recipeIndex(999)).isEqualTo(-1);
+        assertThat(graph.itemIndex(42)).isEqualTo(-1);
+    }
+
+    @Test
+    void build_indexesProducersAndConsumersOfEachItem() {
+        RecipeGraph graph = sampleGraph();
+        int bar = graph.itemIndex(10);
+        int ore = graph.itemIndex(1);
+
+        assertThat(recipeIds(graph, graph.producedByStart(bar), graph.producedByEnd(bar), graph::producedBy))
+            .containsExactlyInAnyOrder(100L, 300L);
+        assertThat(recipeIds(graph, graph.usedByStart(bar), graph.usedByEnd(bar), graph::usedBy))
+            .containsExactly(200L);
+        assertThat(recipeIds(graph, graph.usedByStart(ore), graph.usedByEnd(ore), graph::usedBy))
+            .containsExactlyInAnyOrder(100L, 300L);
+        assertThat(graph.producedByEnd(ore) - graph.producedByStart(ore)).isZero();
+    }
+
+    @Test
+    void build_growsPastInitialCapacity() {
+        RecipeGraph.Builder builder = new RecipeGraph.Builder();
+        for (int i = 1; i <= 1000; i++) {
+            builder.addRecipe(i, 10_000 + i, 1f);
+            builder.addIngredient(i, i, 1);
+            builder.addIngredient(i, 10_000 + i - 1, 1);
+        }
+
+        RecipeGraph graph = builder.build();
+
+        assertThat(graph.recipeCount()).isEqualTo(1000);
+        assertThat(ingredientsOf(graph, 500)).containsExactlyInAnyOrder("500x1", "10499x1");
+    }
+
+    @Test
+    void build_rejectsDuplicateRecipes() {
+        RecipeGraph.Builder builder = new RecipeGraph.Builder().addRecipe(1, 10, 1f).addRecipe(1, 11, 1f);
+
+        assertThatThrownBy(builder::build).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void emptyGraph_hasNoRecipes() {
+        assertThat(RecipeGraph.EMPTY.recipeCount()).isZero();
+        assertThat(RecipeGraph.EMPTY.recipeIndex(1)).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,70 @@
+package com.crafting.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.crafting.blizz.ItemPrices;
+import com.crafting.model.Item;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import jakarta.persistence.EntityManager;
+
+import java.time.OffsetDateTime;
+
+@DataJpaTest
+@Import(ItemPriceJdbcRepository.class)
+class ItemPriceJdbcRepositoryTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemPriceJdbcRepository itemPriceJdbcRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void updateCurrentPrices_updatesExistingItems_andReportsMissing() {
+        itemRepository.save(new Item(123L, "Dust"));
+        itemRepository.save(new Item(555L, "Ore"));
+        entityManager.flush();
+
+        ItemPrices prices = new ItemPrices(3);
+        prices.add(123, 1_000L);
+        prices.add(555, 2_500L);
+        prices.add(999, 42L);
+        OffsetDateTime recordedAt = OffsetDateTime.now();
+
+        PriceWriteResult result = itemPriceJdbcRepository.updateCurrentPrices(prices, recordedAt);
+        entityManager.clear();
+
+        assertThat(result.updated()).isEqualTo(2);
+        assertThat(result.missingItemIds()).containsExactly(999);
+        Item dust = itemRepository.findById(123L).orElseThrow();
+        assertThat(dust.getCurrentPrice()).isEqualTo(1_000L);
+        assertThat(dust.getCurrentPriceRecordedAt()).isNotNull();
+        assertThat(itemRepository.findById(555L).orElseThrow().getCurrentPrice()).isEqualTo(2_500L);
+    }
+
+    @Test
+    void updateCurrentPrices_keepsANewerPrice_whenAnOlderOneIsWritten() {
+        itemRepository.save(new Item(123L, "Dust"));
+        entityManager.flush();
+        OffsetDateTime now = OffsetDateTime.now();
+
+        ItemPrices current = new ItemPrices(1);
+        current.add(123, 1_000L);
+        itemPriceJdbcRepository.updateCurrentPrices(current, now);
+        ItemPrices replayed = new ItemPrices(1);
+        replayed.add(123, 400L);
+        PriceWriteResult result = itemPriceJdbcRepository.updateCurrentPrices(replayed, now.minusDays(3));
+        entityManager.clear();
+
+        // still reported as written, not as missing
+        assertThat(result.missingItemIds()).isEmpty();
+        assertThat(itemRepository.findById(123L).orElseThrow().getCurrentPrice()).isEqualTo(1_000L);
+    }
+}
@@ -5,13 +5,20 @@ import static org.assertj.core.api.Assertions.assertThat;
 import com.crafting.model.Item;
 import com.crafting.model.Profession;
 import com.crafting.model.dto.ItemDTO;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
-@DataJpaTest
+// statistics on so the tests can count the statements a read issues
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class ItemRepositoryImplTest {
 
     @Autowired
@@ -20,6 +27,52 @@ class ItemRepositoryImplTest {
     @Autowired
     private ProfessionRepository professionRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics saveItemsAndResetStatistics() {
+        for (String name : List.of("Enchanting", "Tailoring", "Alchemy")) {
+            Profession profession = new Profession();
+            profession.setName(name);
+            Profession saved = professionRepository.save(profession);
+            for (int i = 0; i < 5; i++) {
+                Item item = new Item((long) saved.getId() * 100 + i, name + " item " + i);
+                item.setProfession(saved);
+                itemRepository.save(item);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    @Test
+    void findAllDtos_issuesOneStatement_andLoadsNoEntities() {
+        Statistics statistics = saveItemsAndResetStatistics();
+
+        List<ItemDTO> dtos = itemRepository.findAllDtos();
+
+        assertThat(dtos).hasSize(15).allSatisfy(dto -> assertThat(dto.getProfessionName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findDtosByIdIn_issuesOneStatement_andLoadsNoEntities() {
+        Statistics statistics = saveItemsAndResetStatistics();
+        List<Long> ids = itemRepository.findAllIds().subList(0, 6);
+        statistics.clear();
+
+        List<ItemDTO> dtos = itemRepository.findDtosByIdIn(ids);
+
+        assertThat(dtos).extracting(ItemDTO::getId).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
     @Test
     void findAllDtos_includesProfessionName_andAllowsNullPrice() {
         Profession profession = new Profession();
@@ -58,4 +111,32 @@ class ItemRepositoryImplTest {
         assertThat(second.getProfessionName()).isNull();
         assertThat(second.isFinishingIngredient()).isFalse();
     }
+
+    @Test
+    void findDtosAfter_walksAllItemsInIdOrder() {
+        saveItemsAndResetStatistics();
+
+        List<Long> walked = new ArrayList<>();
+        long afterId = 0;
+        List<ItemDTO> page;
+        do {
+            page = itemRepository.findDtosAfter(afterId, Limit.of(4));
+            page.forEach(dto -> walked.add(dto.getId()));
+            if (!page.isEmpty()) afterId = page.get(page.size() - 1).getId();
+        } while (page.size() == 4);
+
+        assertThat(walked).hasSize(15).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void streamAllDtos_matchesFindAllDtos() {
+        saveItemsAndResetStatistics();
+
+        List<Long> streamed;
+        try (Stream<ItemDTO> stream = itemRepository.streamAllDtos()) {
+            streamed = stream.map(ItemDTO::getId).toList();
+        }
+
+        assertThat(streamed).isEqualTo(itemRepository.findAllDtos().stream().map(ItemDTO::getId).toList());
+    }
 }
@@ -0,0 +1,51 @@
+package com.crafting.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.crafting.model.Item;
+import com.crafting.model.PriceResolution;
+import com.crafting.model.dto.PricePointDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.persistence.EntityManager;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@DataJpaTest
+@Import(PriceRollupJdbcRepository.class)
+class PriceRollupJdbcRepositoryTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PriceRollupJdbcRepository priceRollupJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void rawPoints_comeFromTheRequestedSourceOnly() {
+        itemRepository.save(new Item(123L, "Dust"));
+        entityManager.flush();
+        OffsetDateTime recordedAt = OffsetDateTime.of(2026, 10, 6, 12, 0, 0, 0, ZoneOffset.UTC);
+        String insert = "INSERT INTO item_price_history (item_id, price, recorded_at, source) VALUES (?, ?, ?, ?)";
+        jdbcTemplate.update(insert, 123L, 1_000L, recordedAt, "eu-commodities");
+        jdbcTemplate.update(insert, 123L, 4_000L, recordedAt, "us-commodities");
+
+        List<PricePointDTO> points = priceRollupJdbcRepository.findPoints(123L, "eu-commodities",
+            PriceResolution.RAW, recordedAt.minusHours(1), recordedAt.plusHours(1));
+
+        assertThat(points).hasSize(1);
+        assertThat(points.get(0).getClose()).isEqualTo(1_000L);
+    }
+}
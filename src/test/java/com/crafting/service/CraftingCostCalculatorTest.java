@@ -0,0 +1,176 @@
+package com.crafting.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.crafting.model.RecipeGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class CraftingCostCalculatorTest {
+
+    // ore(1) -> bar(10) -> sword(20); leather(2) also goes into the sword
+    private static RecipeGraph smithing() {
+        return new RecipeGraph.Builder()
+            .addRecipe(100, 10, 2f)      // 2 bars from 3 ore
+            .addIngredient(100, 1, 3)
+            .addRecipe(200, 20, 1f)      // sword from 4 bars and 1 leather
+            .addIngredient(200, 10, 4)
+            .addIngredient(200, 2, 1)
+            .build();
+    }
+
+    @Test
+    void intermediateReagent_isCraftedWhenCheaperThanBuying() {
+        CraftingCostCalculator calculator = new CraftingCostCalculator(smithing());
+        calculator.setMarketPrice(1, 10);    // ore
+        calculator.setMarketPrice(10, 20);   // bar; crafting costs 3 * 10 / 2 = 15
+        calculator.setMarketPrice(2, 7);     // leather
+        calculator.setMarketPrice(20, 100);  // sword
+        calculator.recomputeAll();
+
+        CraftingCosts costs = calculator.snapshot();
+        RecipeGraph graph = costs.getGraph();
+        int sword = graph.recipeIndex(200);
+        assertThat(costs.itemCost(graph.itemIndex(10))).isEqualTo(15L);
+        assertThat(graph.recipeId(costs.bestRecipe(graph.itemIndex(10)))).isEqualTo(100L);
+        assertThat(costs.craftCost(sword)).isEqualTo(4 * 15L + 7);
+        assertThat(costs.outputValue(sword)).isEqualTo(100L);
+        assertThat(costs.profit(sword)).isEqualTo(100L - 67);
+    }
+
+    @Test
+    void intermediateReagent_isBoughtWhenCheaper_andUnpricedRecipesHaveNoProfit() {
+        CraftingCostCalculator calculator = new CraftingCostCalculator(smithing());
+        calculator.setMarketPrice(1, 10);
+        calculator.setMarketPrice(10, 12);
+        calculator.recomputeAll();
+
+        CraftingCosts costs = calculator.snapshot();
+        RecipeGraph graph = costs.getGraph();
+        assertThat(costs.bestRecipe(graph.itemIndex(10))).isEqualTo(-1);
+        // leather has no price and no recipe, sword has no price
+        assertThat(costs.craftCost(graph.recipeIndex(200))).isNull();
+        assertThat(costs.profit(graph.recipeIndex(200))).isNull();
+        assertThat(costs.profit(graph.recipeIndex(100))).isEqualTo(2 * 12L - 30);
+    }
+
+    @Test
+    void recipeWithoutIngredients_hasUnknownCost_insteadOfBeingFree() {
+        RecipeGraph graph = new RecipeGraph.Builder()
+            .addRecipe(300, 30, 1f)      // ingredients missing
+            .build();
+        CraftingCostCalculator calculator = new CraftingCostCalculator(graph);
+        calculator.setMarketPrice(30, 50);
+        calculator.recomputeAll();
+
+        CraftingCosts costs = calculator.snapshot();
+        assertThat(costs.craftCost(graph.recipeIndex(300))).isNull();
+        assertThat(costs.profit(graph.recipeIndex(300))).isNull();
+        assertThat(costs.itemCost(graph.itemIndex(30))).isEqualTo(50L);
+        assertThat(costs.bestRecipe(graph.itemIndex(30))).isEqualTo(-1);
+    }
+
+    @Test
+    void cycles_terminate_andFallBackToBuying() {
+        // 1 <- 2 and 2 <- 1, e.g. transmutes both ways
+        RecipeGraph graph = new RecipeGraph.Builder()
+            .addRecipe(1, 1, 1f).addIngredient(1, 2, 1)
+            .addRecipe(2, 2, 1f).addIngredient(2, 1, 2)
+            .build();
+        CraftingCostCalculator calculator = new CraftingCostCalculator(graph);
+        calculator.setMarketPrice(2, 5);
+        calculator.recomputeAll();
+
+        CraftingCosts costs = calculator.snapshot();
+        assertThat(costs.itemCost(graph.itemIndex(1))).isEqualTo(5L);
+        assertThat(costs.itemCost(graph.itemIndex(2))).isEqualTo(5L);
+        assertThat(costs.profit(graph.recipeIndex(2))).isEqualTo(5L - 10);
+    }
+
+    @Test
+    void recomputeChanged_matchesFullRecompute_andTouchesOnlyAffectedRecipes() {
+        RecipeGraph graph = randomGraph(new Random(11), 3000, 2000);
+        CraftingCostCalculator incremental = new CraftingCostCalculator(graph);
+        Random prices = new Random(5);
+        for (int item = 0; item < graph.itemCount(); item++) {
+            incremental.setMarketPrice(graph.itemId(item), 100 + prices.nextInt(10_000));
+        }
+        incremental.recomputeAll();
+
+        long changedItem = graph.itemId(0);
+        incremental.setMarketPrice(changedItem, 1);
+        int evaluated = incremental.recomputeChanged();
+
+        CraftingCostCalculator full = new CraftingCostCalculator(graph);
+        prices = new Random(5);
+        for (int item = 0; item < graph.itemCount(); item++) {
+            full.setMarketPrice(graph.itemId(item), 100 + prices.nextInt(10_000));
+        }
+        full.setMarketPrice(changedItem, 1);
+        full.recomputeAll();
+
+        CraftingCosts a = incremental.snapshot();
+        CraftingCosts b = full.snapshot();
+        for (int r = 0; r < graph.recipeCount(); r++) {
+            assertThat(a.profit(r)).as("recipe %d", graph.recipeId(r)).isEqualTo(b.profit(r));
+        }
+        assertThat(evaluated).isPositive().isLessThan(graph.recipeCount());
+        assertThat(incremental.recomputeChanged()).isZero();
+    }
+
+    @Test
+    void fullRecompute_ofThousandsOfRecipes_matchesAReferenceWalk() {
+        int baseItems = 10_000;
+        RecipeGraph graph = randomGraph(new Random(3), 20_000, baseItems);
+        CraftingCostCalculator calculator = new CraftingCostCalculator(graph);
+        for (int item = 0; item < graph.itemCount(); item++) {
+            long id = graph.itemId(item);
+            calculator.setMarketPrice(id, 100 + id % 997);
+        }
+        assertThat(calculator.recomputeAll()).isEqualTo(20_000);
+
+        // every recipe only uses lower item IDs, so ascending ID order resolves ingredients first
+        double[] reference = new double[baseItems + 20_000];
+        for (int id = 0; id < reference.length; id++) {
+            double best = 100 + id % 997;
+            int item = graph.itemIndex(id);
+            if (item >= 0) {
+                for (int k = graph.producedByStart(item); k < graph.producedByEnd(item); k++) {
+                    int recipe = graph.producedBy(k);
+                    double craft = 0;
+                    for (int j = graph.ingredientStart(recipe); j < graph.ingredientEnd(recipe); j++) {
+                        craft += graph.ingredientQuantity(j) * reference[(int) graph.itemId(graph.ingredientItem(j))];
+                    }
+                    best = Math.min(best, craft / graph.outputQuantity(recipe));
+                }
+            }
+            reference[id] = best;
+        }
+
+        CraftingCosts costs = calculator.snapshot();
+        for (int item = 0; item < graph.itemCount(); item++) {
+            assertThat((double) costs.itemCost(item)).as("item %d", graph.itemId(item))
+                .isCloseTo(reference[(int) graph.itemId(item)], within(1.0));
+        }
+    }
+
+    /**
+     * Layered recipes: recipe i makes item baseItems + i from up to four lower items,
+     * so intermediate reagents chain several levels deep.
+     */
+    private static RecipeGraph randomGraph(Random random, int recipes, int baseItems) {
+        RecipeGraph.Builder builder = new RecipeGraph.Builder();
+        for (int i = 0; i < recipes; i++) {
+            long output = baseItems + i;
+            builder.addRecipe(i + 1, output, 1 + random.nextInt(3));
+            int ingredients = 1 + random.nextInt(4);
+            for (int k = 0; k < ingredients; k++) {
+                long item = random.nextInt((int) output);
+                builder.addIngredient(i + 1, item, 1 + random.nextInt(5));
+            }
+        }
+        return builder.build();
+    }
+}
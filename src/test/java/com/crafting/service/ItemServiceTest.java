@@ -0,0 +1,129 @@
+package com.crafting.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.crafting.config.CacheConfig;
+import com.crafting.model.Item;
+import com.crafting.model.dto.ItemDTO;
+import com.crafting.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Arrays;
+import java.util.List;
+
+@SpringJUnitConfig
+class ItemServiceTest {
+
+    // whether the item-by-ID cache still held item 2 when the data version was last bumped
+    private static volatile boolean cachedAtBump;
+
+    @Configuration
+    @Import({CacheConfig.class, ItemService.class})
+    static class TestConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.ITEMS, CacheConfig.ITEM_BY_ID);
+        }
+
+        @Bean
+        DataVersion dataVersion(CacheManager cacheManager) {
+            return new DataVersion() {
+                @Override
+                public void bump() {
+                    cachedAtBump = cacheManager.getCache(CacheConfig.ITEM_BY_ID).get(2L) != null;
+                    super.bump();
+                }
+            };
+        }
+    }
+
+    @MockitoBean
+    private ItemRepository itemRepository;
+
+    @MockitoBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    private static ItemDTO dto(long id, String name) {
+        return new ItemDTO(id, name, null, null, null, false, null, null);
+    }
+
+    @BeforeEach
+    void clearCaches() {
+        itemService.evictAll();
+    }
+
+    @Test
+    void findAll_isServedFromCache_untilAWriteEvictsIt() {
+        when(itemRepository.findAllDtos()).thenReturn(List.of(dto(1L, "Ore")));
+
+        itemService.findAll();
+        itemService.findAll();
+        verify(itemRepository, times(1)).findAllDtos();
+
+        itemService.save(new Item(2L, "Dust"));
+        itemService.findAll();
+        verify(itemRepository, times(2)).findAllDtos();
+    }
+
+    @Test
+    void findOrdered_loadsOnlyMisses_andKeepsRequestedOrder() {
+        when(itemRepository.findDtosByIdIn(List.of(3L, 1L)))
+            .thenReturn(List.of(dto(1L, "Ore"), dto(3L, "Herb")));
+        when(itemRepository.findDtosByIdIn(List.of(2L, 404L)))
+            .thenReturn(List.of(dto(2L, "Dust")));
+
+        List<ItemDTO> first = itemService.findOrdered(List.of(3L, 1L));
+        List<ItemDTO> second = itemService.findOrdered(List.of(1L, 2L, 3L, 404L));
+
+        assertThat(first).extracting(ItemDTO::getId).containsExactly(3L, 1L);
+        assertThat(second).extracting(item -> item == null ? null : item.getId())
+            .containsExactly(1L, 2L, 3L, null);
+        verify(itemRepository, times(1)).findDtosByIdIn(List.of(3L, 1L));
+        verify(itemRepository, times(1)).findDtosByIdIn(List.of(2L, 404L));
+    }
+
+    @Test
+    void evictAll_dropsCachedItems() {
+        when(itemRepository.findDtosByIdIn(anyCollection()))
+            .thenReturn(List.of(dto(1L, "Ore")));
+
+        itemService.findOrdered(Arrays.asList(1L));
+        itemService.evictAll();
+        itemService.findOrdered(Arrays.asList(1L));
+
+        verify(itemRepository, times(2)).findDtosByIdIn(anyCollection());
+    }
+
+    @Test
+    void save_evictsTheItem_beforeBumpingTheDataVersion() {
+        when(itemRepository.findDtosByIdIn(anyCollection()))
+            .thenReturn(List.of(dto(2L, "Dust")));
+        itemService.findOrdered(Arrays.asList(2L));
+        long version = dataVersion.current();
+
+        itemService.save(new Item(2L, "Dust"));
+
+        assertThat(dataVersion.current()).isEqualTo(version + 1);
+        assertThat(cachedAtBump).isFalse();
+    }
+}
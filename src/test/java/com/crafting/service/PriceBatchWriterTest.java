@@ -0,0 +1,96 @@
+package com.crafting.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.crafting.blizz.ItemPrices;
+import com.crafting.repository.PriceWriteResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class PriceBatchWriterTest {
+
+    private final PricePersistenceService persistence = mock(PricePersistenceService.class);
+
+    private static ItemPrices batch(int... itemIds) {
+        ItemPrices prices = new ItemPrices(itemIds.length);
+        for (int itemId : itemIds) prices.add(itemId, 100);
+        return prices;
+    }
+
+    @Test
+    void finish_mergesResultsOfAllBatches() throws Exception {
+        when(persistence.persist(any(), any(), anyString(), anyBoolean())).thenAnswer(call -> {
+            ItemPrices prices = call.getArgument(0);
+            // pretend the first item of every batch is missing from the DB
+            return new PriceWriteResult(prices.size() - 1, new int[] {prices.itemId(0)});
+        });
+
+        PriceWriteResult written;
+        try (PriceBatchWriter writer = new PriceBatchWriter(persistence, OffsetDateTime.now(), "eu-commodities", true, 2)) {
+            writer.submit(batch(1, 2, 3));
+            writer.submit(batch(4, 5));
+            writer.submit(batch(6));
+            written = writer.finish();
+        }
+
+        assertThat(written.updated()).isEqualTo(3);
+        assertThat(written.missingItemIds()).containsExactly(1, 4, 6);
+    }
+
+    @Test
+    void submit_blocksWhileQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger written = new AtomicInteger();
+        when(persistence.persist(any(), any(), anyString(), anyBoolean())).thenAnswer(call -> {
+            release.await();
+            written.incrementAndGet();
+            return new PriceWriteResult(1, new int[0]);
+        });
+
+        try (PriceBatchWriter writer = new PriceBatchWriter(persistence, OffsetDateTime.now(), "eu-commodities", false, 1)) {
+            writer.submit(batch(1));
+            writer.submit(batch(2));
+            CountDownLatch thirdQueued = new CountDownLatch(1);
+            Thread producer = Thread.ofVirtual().start(() -> {
+                try {
+                    writer.submit(batch(3));
+                    thirdQueued.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            // one batch in the database, one queued: the third has to wait
+            assertThat(thirdQueued.await(200, TimeUnit.MILLISECONDS)).isFalse();
+            release.countDown();
+            assertThat(thirdQueued.await(5, TimeUnit.SECONDS)).isTrue();
+            producer.join();
+            assertThat(writer.finish().updated()).isEqualTo(3);
+        }
+        assertThat(written).hasValue(3);
+    }
+
+    @Test
+    void failedBatch_failsTheProducer() throws Exception {
+        when(persistence.persist(any(), any(), anyString(), anyBoolean()))
+            .thenThrow(new IllegalStateException("db down"));
+
+        try (PriceBatchWriter writer = new PriceBatchWriter(persistence, OffsetDateTime.now(), "eu-commodities", true, 1)) {
+            assertThatThrownBy(() -> {
+                for (int i = 1; i < 100; i++) writer.submit(batch(i));
+                writer.finish();
+            }).isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("db down");
+        }
+    }
+}
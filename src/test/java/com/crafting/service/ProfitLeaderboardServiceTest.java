@@ -0,0 +1,86 @@
+package com.crafting.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.crafting.config.LeaderboardConfig;
+import com.crafting.model.RecipeGraph;
+import com.crafting.model.dto.LeaderboardDTO;
+import com.crafting.model.dto.RecipeProfitDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProfitLeaderboardServiceTest {
+
+    private CraftingCostService craftingCostService;
+    private ProfitLeaderboardService leaderboardService;
+
+    /**
+     * Recipe i (1..20) sells item 100 + i for 10 * i from one item 1 at price 50,
+     * so its profit is 10 * i - 50. Odd recipes are profession 1, even ones profession 2.
+     */
+    private static CraftingCosts costs(long ingredientPrice) {
+        RecipeGraph.Builder builder = new RecipeGraph.Builder();
+        for (int i = 1; i <= 20; i++) {
+            builder.addRecipe(i, 100 + i, 1f, i % 2 == 1 ? 1 : 2, "Recipe " + i);
+            builder.addIngredient(i, 1, 1);
+        }
+        builder.addRecipe(21, 200, 1f, 1, "Unpriced output");
+        builder.addIngredient(21, 1, 1);
+        CraftingCostCalculator calculator = new CraftingCostCalculator(builder.build());
+        calculator.setMarketPrice(1, ingredientPrice);
+        for (int i = 1; i <= 20; i++) {
+            calculator.setMarketPrice(100 + i, 10L * i);
+        }
+        calculator.recomputeAll();
+        return calculator.snapshot();
+    }
+
+    @BeforeEach
+    void setUp() {
+        craftingCostService = mock(CraftingCostService.class);
+        LeaderboardConfig config = new LeaderboardConfig();
+        config.setSize(3);
+        leaderboardService = new ProfitLeaderboardService(craftingCostService, config);
+    }
+
+    @Test
+    void leaderboards_keepTopRecipesPerProfession_highestProfitFirst() {
+        when(craftingCostService.getCosts()).thenReturn(costs(50));
+
+        LeaderboardDTO all = leaderboardService.getLeaderboard(null);
+        LeaderboardDTO odd = leaderboardService.getLeaderboard(1);
+        LeaderboardDTO unknown = leaderboardService.getLeaderboard(99);
+
+        assertThat(all.getEntries()).extracting(RecipeProfitDTO::getRecipeId).containsExactly(20L, 19L, 18L);
+        assertThat(odd.getEntries()).extracting(RecipeProfitDTO::getRecipeId).containsExactly(19L, 17L, 15L);
+        assertThat(odd.getEntries().get(0).getProfit()).isEqualTo(190L - 50);
+        assertThat(odd.getProfessionId()).isEqualTo(1);
+        assertThat(unknown.getEntries()).isEmpty();
+    }
+
+    @Test
+    void refresh_rebuildsOnlyWhenCostsChanged() {
+        CraftingCosts first = costs(50);
+        when(craftingCostService.getCosts()).thenReturn(first);
+        LeaderboardDTO before = leaderboardService.getLeaderboard(2);
+
+        leaderboardService.refresh();
+        assertThat(leaderboardService.getLeaderboard(2)).isSameAs(before);
+
+        when(craftingCostService.getCosts()).thenReturn(costs(150));
+        leaderboardService.refresh();
+        LeaderboardDTO after = leaderboardService.getLeaderboard(2);
+
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.getEntries().get(0).getProfit()).isEqualTo(200L - 150);
+    }
+
+    @Test
+    void subscribe_registersEmitterWithCurrentBoard() {
+        when(craftingCostService.getCosts()).thenReturn(costs(50));
+
+        assertThat(leaderboardService.subscribe(1).getTimeout()).isEqualTo(30 * 60 * 1000L);
+    }
+}
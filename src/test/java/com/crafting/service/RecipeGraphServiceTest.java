@@ -0,0 +1,31 @@
+package com.crafting.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.crafting.model.RecipeGraph;
+import com.crafting.repository.RecipeGraphJdbcRepository;
+import org.junit.jupiter.api.Test;
+
+class RecipeGraphServiceTest {
+
+    private final RecipeGraphJdbcRepository repository = mock(RecipeGraphJdbcRepository.class);
+    private final RecipeGraphService service = new RecipeGraphService(repository);
+
+    @Test
+    void graph_isLoadedOnce_andAgainAfterInvalidate() {
+        RecipeGraph first = new RecipeGraph.Builder().build();
+        RecipeGraph second = new RecipeGraph.Builder().build();
+        when(repository.loadGraph()).thenReturn(first, second);
+
+        assertThat(service.getGraph()).isSameAs(first);
+        assertThat(service.getGraph()).isSameAs(first);
+        service.invalidate();
+
+        assertThat(service.getGraph()).isSameAs(second);
+        verify(repository, times(2)).loadGraph();
+    }
+}
@@ -0,0 +1,64 @@
+package com.crafting.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.crafting.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+
+class TrackedItemIndexTest {
+
+    private ItemRepository itemRepository;
+    private TrackedItemIndex index;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findAllIds()).thenReturn(List.of(10L, 20L, 190_000L));
+        index = new TrackedItemIndex(itemRepository);
+    }
+
+    @Test
+    void loadsIdsOnce_andTestsMembership() {
+        IntPredicate tracked = index.snapshot();
+
+        assertThat(tracked.test(20)).isTrue();
+        assertThat(tracked.test(190_000)).isTrue();
+        assertThat(tracked.test(21)).isFalse();
+        assertThat(index.size()).isEqualTo(3);
+        verify(itemRepository, times(1)).findAllIds();
+    }
+
+    @Test
+    void incrementalUpdates_doNotChangeEarlierSnapshots() {
+        IntPredicate before = index.snapshot();
+
+        index.add(30L);
+        index.remove(10L);
+
+        assertThat(index.contains(30L)).isTrue();
+        assertThat(index.contains(10L)).isFalse();
+        assertThat(before.test(30)).isFalse();
+        assertThat(before.test(10)).isTrue();
+        verify(itemRepository, times(1)).findAllIds();
+    }
+
+    @Test
+    void invalidate_reloadsFromRepository() {
+        index.snapshot();
+        when(itemRepository.findAllIds()).thenReturn(List.of(99L));
+
+        index.invalidate();
+
+        assertThat(index.contains(99L)).isTrue();
+        assertThat(index.contains(10L)).isFalse();
+        verify(itemRepository, times(2)).findAllIds();
+    }
+}